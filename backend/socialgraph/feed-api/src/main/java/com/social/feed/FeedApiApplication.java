@@ -1,16 +1,27 @@
 package com.social.feed;
 
 import org.springframework.boot.SpringApplication;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+
 @SpringBootApplication
+@EnableScheduling
 public class FeedApiApplication {
   public static void main(String[] args) {
     SpringApplication.run(FeedApiApplication.class, args);
   }
 
+  /** Bounded timeouts so a slow downstream service cannot hold request threads indefinitely. */
   @Bean
-  public RestTemplate restTemplate() { return new RestTemplate(); }
+  public RestTemplate restTemplate(RestTemplateBuilder builder,
+                                   @Value("${feed.http.connect-timeout:300ms}") Duration connectTimeout,
+                                   @Value("${feed.http.read-timeout:1s}") Duration readTimeout) {
+    return builder.setConnectTimeout(connectTimeout).setReadTimeout(readTimeout).build();
+  }
 }
@@ -1,9 +1,12 @@
 package com.social.feed.controller;
 
-import org.springframework.data.redis.core.StringRedisTemplate;
+import com.social.feed.service.EngagementPublisher;
+import com.social.feed.service.FeedCursor;
+import com.social.feed.service.FeedReader;
+import com.social.feed.service.PostHydrator;
+import com.social.feed.store.FeedReplicas;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.client.RestTemplate;
 
 import java.util.*;
 
@@ -11,44 +14,102 @@ import java.util.*;
 @RequestMapping("/feed")
 public class FeedController {
 
-  private final StringRedisTemplate redis;
-  private final RestTemplate rest;
+  private final FeedReader feedReader;
+  private final PostHydrator postHydrator;
+  private final EngagementPublisher engagementPublisher;
+  private final FeedReplicas replicas;
 
-  public FeedController(StringRedisTemplate redis, RestTemplate rest) {
-    this.redis = redis;
-    this.rest = rest;
+  public FeedController(FeedReader feedReader, PostHydrator postHydrator, EngagementPublisher engagementPublisher,
+                        FeedReplicas replicas) {
+    this.feedReader = feedReader;
+    this.postHydrator = postHydrator;
+    this.engagementPublisher = engagementPublisher;
+    this.replicas = replicas;
   }
 
+  /**
+   * Offset-paged feed. A caller that wrote at {@code X-Last-Write-At} (epoch ms) has the feed
+   * and its post snapshots read from the Redis primaries for a while after; see {@link FeedReplicas}.
+   */
   @GetMapping
   public ResponseEntity<List<Map<String, Object>>> getFeed(
       @RequestParam String userId,
       @RequestParam(defaultValue = "1") int page,
-      @RequestParam(defaultValue = "10") int limit
+      @RequestParam(defaultValue = "10") int limit,
+      @RequestHeader(value = "X-Last-Write-At", required = false) Long lastWriteAt,
+      @RequestHeader(value = "Authorization", required = false) String authorization
   ) {
-    String key = "feed:" + userId;
+    if (limit < 1) {
+      return ResponseEntity.badRequest().build();
+    }
     int start = Math.max(0, (page - 1) * limit);
     int end = start + limit - 1;
 
-    Set<String> ids = redis.opsForZSet().reverseRange(key, start, end);
-    if (ids == null || ids.isEmpty()) {
-      return ResponseEntity.ok(Collections.emptyList());
+    replicas.readAfter(lastWriteAt);
+    try {
+      List<String> ids = feedReader.page(userId, start, end);
+      if (ids == null || ids.isEmpty()) {
+        return ResponseEntity.ok(Collections.emptyList());
+      }
+
+      List<Map<String, Object>> out = postHydrator.hydrate(ids, authorization);
+      publishRead(userId, out);
+      return ResponseEntity.ok(out);
+    } finally {
+      replicas.clear();
     }
+  }
+
+  /**
+   * Cursor-paged feed for infinite scroll: {@code posts} plus the {@code nextCursor} to pass back
+   * for the following page (null at the end). Unlike {@code page}, pages stay stable while new
+   * posts land in the feed.
+   */
+  @GetMapping("/scroll")
+  public ResponseEntity<Map<String, Object>> scrollFeed(
+      @RequestParam String userId,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "10") int limit,
+      @RequestHeader(value = "X-Last-Write-At", required = false) Long lastWriteAt,
+      @RequestHeader(value = "Authorization", required = false) String authorization
+  ) {
+    if (limit < 1) {
+      return ResponseEntity.badRequest().build();
+    }
+    FeedCursor after;
+    try {
+      after = cursor == null || cursor.isBlank() ? null : FeedCursor.decode(cursor);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+
+    FeedReader.CursorPage slice;
+    List<Map<String, Object>> posts;
+    replicas.readAfter(lastWriteAt);
+    try {
+      slice = feedReader.pageAfter(userId, after, limit);
+      posts = slice.postIds().isEmpty()
+          ? Collections.emptyList()
+          : postHydrator.hydrate(slice.postIds(), authorization);
+    } finally {
+      replicas.clear();
+    }
+    publishRead(userId, posts);
+
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put("posts", posts);
+    body.put("nextCursor", slice.next() == null ? null : slice.next().encode());
+    return ResponseEntity.ok(body);
+  }
 
-    List<Map<String, Object>> out = new ArrayList<>();
-    for (String id : ids) {
-      try {
-        Map<?, ?> post = rest.getForObject("http://localhost:8090/post/" + id, Map.class);
-        if (post != null) {
-          @SuppressWarnings("unchecked")
-          Map<String, Object> asMap = new LinkedHashMap<>((Map<String, Object>) post);
-          out.add(asMap);
-        } else {
-          out.add(Map.of("postId", id));
-        }
-      } catch (Exception ex) {
-        out.add(Map.of("postId", id));
+  private void publishRead(String userId, List<Map<String, Object>> posts) {
+    Map<String, Integer> postsByAuthor = new HashMap<>();
+    for (Map<String, Object> post : posts) {
+      Object authorId = post.get("authorId");
+      if (authorId != null) {
+        postsByAuthor.merge(String.valueOf(authorId), 1, Integer::sum);
       }
     }
-    return ResponseEntity.ok(out);
+    engagementPublisher.feedRead(userId, postsByAuthor);
   }
 }
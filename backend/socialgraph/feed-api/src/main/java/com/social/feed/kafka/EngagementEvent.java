@@ -0,0 +1,21 @@
+package com.social.feed.kafka;
+
+public class EngagementEvent {
+  public static final String READ = "READ";
+
+  private String viewerId;
+  private String authorId;
+  private String type;
+  private int count;
+  private long timestamp;
+
+  public EngagementEvent() {}
+  public EngagementEvent(String viewerId, String authorId, String type, int count, long timestamp) {
+    this.viewerId = viewerId; this.authorId = authorId; this.type = type; this.count = count; this.timestamp = timestamp;
+  }
+  public String getViewerId() { return viewerId; }
+  public String getAuthorId() { return authorId; }
+  public String getType() { return type; }
+  public int getCount() { return count; }
+  public long getTimestamp() { return timestamp; }
+}
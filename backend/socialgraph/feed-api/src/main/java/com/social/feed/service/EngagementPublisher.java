@@ -0,0 +1,38 @@
+package com.social.feed.service;
+
+import com.social.feed.kafka.EngagementEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+
+/**
+ * Publishes feed-read signals to engagement-events, where feed-ranker turns them into
+ * per-(viewer, author) affinities.
+ */
+@Service
+public class EngagementPublisher {
+
+  private static final Logger logger = LoggerFactory.getLogger(EngagementPublisher.class);
+  private static final String TOPIC = "engagement-events";
+
+  private final KafkaTemplate<String, EngagementEvent> kafkaTemplate;
+
+  public EngagementPublisher(KafkaTemplate<String, EngagementEvent> kafkaTemplate) {
+    this.kafkaTemplate = kafkaTemplate;
+  }
+
+  /** One event per author on the page, carrying how many of their posts were shown. */
+  public void feedRead(String viewerId, Map<String, Integer> postsByAuthor) {
+    long now = System.currentTimeMillis();
+    postsByAuthor.forEach((authorId, count) -> {
+      try {
+        kafkaTemplate.send(TOPIC, viewerId, new EngagementEvent(viewerId, authorId, EngagementEvent.READ, count, now));
+      } catch (Exception e) {
+        logger.debug("Dropped read signal {} -> {}", viewerId, authorId, e);
+      }
+    });
+  }
+}
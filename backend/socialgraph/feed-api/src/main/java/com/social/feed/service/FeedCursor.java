@@ -0,0 +1,35 @@
+package com.social.feed.service;
+
+import com.social.feed.store.FeedEntry;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of an infinite-scroll reader: the last entry it was served, by stored score and post
+ * id, and how many entries it has been served so far. Pages after it are read by score, so posts
+ * fanned in meanwhile cannot shift them. Opaque to clients.
+ */
+public record FeedCursor(double score, String postId, int served) {
+
+  public String encode() {
+    String raw = Long.toHexString(Double.doubleToLongBits(score)) + ":" + served + ":" + postId;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /** Parses a cursor from {@link #encode()}; throws {@link IllegalArgumentException} if it is not one. */
+  public static FeedCursor decode(String cursor) {
+    try {
+      String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", 3);
+      return new FeedCursor(Double.longBitsToDouble(Long.parseUnsignedLong(parts[0], 16)), parts[2],
+          Integer.parseInt(parts[1]));
+    } catch (RuntimeException e) {
+      throw new IllegalArgumentException("Malformed feed cursor", e);
+    }
+  }
+
+  /** Whether {@code entry} comes after this position in (score, postId) descending order. */
+  boolean precedes(FeedEntry entry) {
+    return entry.score() < score || (entry.score() == score && entry.postId().compareTo(postId) < 0);
+  }
+}
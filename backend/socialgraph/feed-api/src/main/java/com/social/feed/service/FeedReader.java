@@ -0,0 +1,213 @@
+package com.social.feed.service;
+
+import com.social.feed.store.FeedEntry;
+import com.social.feed.store.FeedReplicas;
+import com.social.feed.store.FeedStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Resolves the post ids of one feed page. Posts of pull-mode authors (see feed-ranker's
+ * {@code feed.fanout.pull-threshold}) are not in the materialised feed, so their timelines are
+ * merged in here by score. Packed scores written in feed-ranker's read-time scoring mode are
+ * decayed here, over a window over-fetched by {@code feed.scoring.overfetch}, so decay can be
+ * retuned without rewriting stored feeds. Pages stop at {@code feed.max-size}: feed-ranker may
+ * let feeds run past the cap until they are trimmed, and those extra entries are never served.
+ * Feed and timeline reads may be served by Redis replicas; see {@link FeedReplicas}.
+ * {@link #pageAfter} pages by {@link FeedCursor} instead of by offset: entries come in stored
+ * (score, postId) order, without read-time decay, so inserts landing between requests neither
+ * repeat nor skip entries and every page costs the same however deep it is.
+ */
+@Service
+public class FeedReader {
+
+  private static final Logger logger = LoggerFactory.getLogger(FeedReader.class);
+  private static final String PULL_AUTHORS_KEY = "pull-authors";
+  private static final Comparator<FeedEntry> BY_SCORE_THEN_ID =
+      Comparator.comparingDouble(FeedEntry::score).thenComparing(FeedEntry::postId).reversed();
+
+  private final FeedReplicas replicas;
+  private final FeedStore feedStore;
+  private final RestTemplate rest;
+
+  @Value("${feed.max-size:100}")
+  private int maxFeedSize;
+
+  @Value("${feed.pull.max-authors:50}")
+  private int maxPullAuthors;
+
+  @Value("${feed.scoring.decay:linear}")
+  private String decay;
+
+  @Value("${feed.scoring.decay-window:1d}")
+  private Duration decayWindow;
+
+  @Value("${feed.scoring.overfetch:2.0}")
+  private double overfetch;
+
+  public FeedReader(FeedReplicas replicas, FeedStore feedStore, RestTemplate rest) {
+    this.replicas = replicas;
+    this.feedStore = feedStore;
+    this.rest = rest;
+  }
+
+  public List<String> page(String userId, int start, int end) {
+    if (start >= maxFeedSize) {
+      return Collections.emptyList();
+    }
+    end = Math.min(end, maxFeedSize - 1);
+    long window = Math.max(end + 1L, (long) Math.ceil((end + 1L) * overfetch));
+    long now = System.currentTimeMillis();
+
+    Map<String, Double> merged = new HashMap<>();
+    for (FeedEntry entry : feedStore.rangeByRank(userId, 0, window - 1)) {
+      merged.merge(entry.postId(), effectiveScore(entry.score(), now), Math::max);
+    }
+    StringRedisTemplate redis = replicas.reader("default");
+    for (String author : pullAuthorsFollowedBy(redis, userId)) {
+      collect(merged, redis.opsForZSet().reverseRangeWithScores("timeline:" + author, 0, window - 1), now);
+    }
+    return merged.entrySet().stream()
+        .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+        .skip(start)
+        .limit(end - start + 1L)
+        .map(Map.Entry::getKey)
+        .toList();
+  }
+
+  /** Up to {@code limit} posts after {@code cursor} (from the top when null), merged with pull-author timelines. */
+  public CursorPage pageAfter(String userId, FeedCursor cursor, int limit) {
+    int served = cursor == null ? 0 : cursor.served();
+    limit = Math.min(limit, maxFeedSize - served);
+    if (limit <= 0) {
+      return new CursorPage(Collections.emptyList(), null);
+    }
+
+    Map<String, Double> merged = new HashMap<>();
+    for (FeedEntry entry : after(cursor, limit, (max, offset, count) -> feedStore.rangeByScore(userId, max, offset, count))) {
+      merged.merge(entry.postId(), entry.score(), Math::max);
+    }
+    StringRedisTemplate redis = replicas.reader("default");
+    for (String author : pullAuthorsFollowedBy(redis, userId)) {
+      String key = "timeline:" + author;
+      List<FeedEntry> timeline = after(cursor, limit, (max, offset, count) ->
+          entries(redis.opsForZSet().reverseRangeByScoreWithScores(key, Double.NEGATIVE_INFINITY, max, offset, count)));
+      for (FeedEntry entry : timeline) {
+        merged.merge(entry.postId(), entry.score(), Math::max);
+      }
+    }
+    List<FeedEntry> page = merged.entrySet().stream()
+        .map(e -> new FeedEntry(e.getKey(), e.getValue()))
+        .sorted(BY_SCORE_THEN_ID)
+        .limit(limit)
+        .toList();
+    FeedCursor next = null;
+    if (page.size() == limit && served + limit < maxFeedSize) {
+      FeedEntry last = page.get(page.size() - 1);
+      next = new FeedCursor(last.score(), last.postId(), served + limit);
+    }
+    return new CursorPage(page.stream().map(FeedEntry::postId).toList(), next);
+  }
+
+  double effectiveScore(double stored, long now) {
+    if (!FeedScore.isPacked(stored)) {
+      return stored;
+    }
+    long age = Math.max(0, now - FeedScore.timestampMillis(stored));
+    double windowMillis = decayWindow.toMillis();
+    double recency = "exponential".equalsIgnoreCase(decay)
+        ? Math.pow(0.5, age / windowMillis)
+        : Math.max(0.0, 1.0 - age / windowMillis);
+    return 0.6 * FeedScore.base(stored) + 0.4 * recency;
+  }
+
+  private List<String> pullAuthorsFollowedBy(StringRedisTemplate redis, String userId) {
+    Long pullAuthorCount = redis.opsForSet().size(PULL_AUTHORS_KEY);
+    if (pullAuthorCount == null || pullAuthorCount == 0) {
+      return Collections.emptyList();
+    }
+    try {
+      List<?> following = rest.getForObject("http://localhost:8080/users/" + userId + "/following", List.class);
+      if (following == null || following.isEmpty()) {
+        return Collections.emptyList();
+      }
+      Object[] candidates = following.stream().map(String::valueOf).toArray();
+      Map<Object, Boolean> flags = redis.opsForSet().isMember(PULL_AUTHORS_KEY, candidates);
+      if (flags == null) {
+        return Collections.emptyList();
+      }
+      return flags.entrySet().stream()
+          .filter(e -> Boolean.TRUE.equals(e.getValue()))
+          .map(e -> String.valueOf(e.getKey()))
+          .limit(maxPullAuthors)
+          .toList();
+    } catch (Exception ex) {
+      logger.warn("Could not resolve pull-mode authors followed by {}, serving materialised feed only", userId, ex);
+      return Collections.emptyList();
+    }
+  }
+
+  /**
+   * The first {@code limit} entries after {@code cursor} in (score, postId) order. Entries tied
+   * on the cut-off score are all read before cutting, so the result does not depend on how the
+   * source orders ties.
+   */
+  private static List<FeedEntry> after(FeedCursor cursor, int limit, ScoreRange range) {
+    double maxScore = cursor == null ? Double.POSITIVE_INFINITY : cursor.score();
+    List<FeedEntry> found = new ArrayList<>();
+    for (int offset = 0; ; ) {
+      List<FeedEntry> batch = range.fetch(maxScore, offset, limit + 1);
+      offset += batch.size();
+      for (FeedEntry entry : batch) {
+        if (cursor == null || cursor.precedes(entry)) {
+          found.add(entry);
+        }
+      }
+      if (batch.size() <= limit
+          || (found.size() >= limit && batch.get(batch.size() - 1).score() < found.get(limit - 1).score())) {
+        break;
+      }
+    }
+    found.sort(BY_SCORE_THEN_ID);
+    return found.size() > limit ? found.subList(0, limit) : found;
+  }
+
+  private static List<FeedEntry> entries(Set<ZSetOperations.TypedTuple<String>> tuples) {
+    if (tuples == null) {
+      return List.of();
+    }
+    List<FeedEntry> entries = new ArrayList<>(tuples.size());
+    for (ZSetOperations.TypedTuple<String> t : tuples) {
+      if (t.getValue() != null && t.getScore() != null) {
+        entries.add(new FeedEntry(t.getValue(), t.getScore()));
+      }
+    }
+    return entries;
+  }
+
+  private void collect(Map<String, Double> merged, Set<ZSetOperations.TypedTuple<String>> tuples, long now) {
+    if (tuples == null) {
+      return;
+    }
+    for (ZSetOperations.TypedTuple<String> t : tuples) {
+      if (t.getValue() != null && t.getScore() != null) {
+        merged.merge(t.getValue(), effectiveScore(t.getScore(), now), Math::max);
+      }
+    }
+  }
+
+  /** One page read with a {@link FeedCursor}; {@code next} is null once the feed is exhausted. */
+  public record CursorPage(List<String> postIds, FeedCursor next) { }
+
+  private interface ScoreRange {
+    List<FeedEntry> fetch(double maxScore, int offset, int count);
+  }
+}
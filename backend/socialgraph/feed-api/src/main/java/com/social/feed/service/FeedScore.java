@@ -0,0 +1,25 @@
+package com.social.feed.service;
+
+/**
+ * Read side of feed-ranker's packed scores ({@code feed.scoring.mode=read-time}): a packed
+ * score is {@code epochSeconds * 1000 + round(base * 999)}. Anything below
+ * {@link #PACKED_MIN} is a legacy score with recency already baked in.
+ */
+public final class FeedScore {
+
+  public static final double PACKED_MIN = 1e9;
+
+  private FeedScore() { }
+
+  public static boolean isPacked(double score) {
+    return score >= PACKED_MIN;
+  }
+
+  public static long timestampMillis(double packed) {
+    return (long) (packed / 1000) * 1000L;
+  }
+
+  public static double base(double packed) {
+    return (packed - Math.floor(packed / 1000) * 1000) / 999.0;
+  }
+}
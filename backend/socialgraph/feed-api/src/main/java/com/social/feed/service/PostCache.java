@@ -0,0 +1,138 @@
+package com.social.feed.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU cache of post bodies bounded by their approximate heap size ({@code feed.post-cache.max-bytes})
+ * rather than by count, since a long post weighs as much as hundreds of short ones. Entries expire
+ * after {@code ttl}; ids feed-ingestor did not return are cached as {@link #MISSING} for the
+ * shorter {@code negative-ttl}. Post update and delete events drop entries early.
+ */
+@Component
+public class PostCache {
+
+  /** Marker for ids known not to exist; compare by identity. */
+  public static final Map<String, Object> MISSING = Collections.unmodifiableMap(new HashMap<>());
+
+  private final long maxBytes;
+  private final long ttlMillis;
+  private final long negativeTtlMillis;
+  private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(1024, 0.75f, true);
+  private long bytes;
+  private final Counter hits;
+  private final Counter negativeHits;
+  private final Counter misses;
+  private final Counter evictions;
+  private final Counter invalidations;
+
+  public PostCache(@Value("${feed.post-cache.max-bytes:67108864}") long maxBytes,
+                   @Value("${feed.post-cache.ttl:10m}") Duration ttl,
+                   @Value("${feed.post-cache.negative-ttl:30s}") Duration negativeTtl,
+                   ObjectProvider<MeterRegistry> meterRegistryProvider) {
+    this.maxBytes = maxBytes;
+    this.ttlMillis = ttl.toMillis();
+    this.negativeTtlMillis = negativeTtl.toMillis();
+    MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable(SimpleMeterRegistry::new);
+    this.hits = meterRegistry.counter("feed.post-cache.requests", "result", "hit");
+    this.negativeHits = meterRegistry.counter("feed.post-cache.requests", "result", "negative-hit");
+    this.misses = meterRegistry.counter("feed.post-cache.requests", "result", "miss");
+    this.evictions = meterRegistry.counter("feed.post-cache.evictions");
+    this.invalidations = meterRegistry.counter("feed.post-cache.invalidations");
+    Gauge.builder("feed.post-cache.size", this, PostCache::size).register(meterRegistry);
+    Gauge.builder("feed.post-cache.bytes", this, PostCache::bytes).baseUnit("bytes").register(meterRegistry);
+  }
+
+  /** Cached entries among {@code ids}, under one lock; ids cached as missing map to {@link #MISSING}. */
+  public synchronized Map<String, Map<String, Object>> getAll(Collection<String> ids) {
+    long now = System.currentTimeMillis();
+    Map<String, Map<String, Object>> found = new HashMap<>();
+    for (String id : ids) {
+      Entry entry = entries.get(id);
+      if (entry != null && now >= entry.expiresAt()) {
+        remove(id);
+        entry = null;
+      }
+      if (entry == null) {
+        misses.increment();
+      } else {
+        (entry.post() == MISSING ? negativeHits : hits).increment();
+        found.put(id, entry.post());
+      }
+    }
+    return found;
+  }
+
+  public void put(String id, Map<String, Object> post) {
+    Map<String, Object> copy = Collections.unmodifiableMap(new LinkedHashMap<>(post));
+    store(id, copy, weigh(id, copy), ttlMillis);
+  }
+
+  public void putMissing(String id) {
+    store(id, MISSING, weigh(id, MISSING), negativeTtlMillis);
+  }
+
+  public synchronized void invalidate(String id) {
+    if (remove(id) != null) {
+      invalidations.increment();
+    }
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  public synchronized long bytes() {
+    return bytes;
+  }
+
+  private synchronized void store(String id, Map<String, Object> post, long weight, long ttl) {
+    if (weight > maxBytes) {
+      return;
+    }
+    remove(id);
+    entries.put(id, new Entry(post, weight, System.currentTimeMillis() + ttl));
+    bytes += weight;
+    Iterator<Entry> eldest = entries.values().iterator();
+    while (bytes > maxBytes && eldest.hasNext()) {
+      bytes -= eldest.next().weight();
+      eldest.remove();
+      evictions.increment();
+    }
+  }
+
+  private Entry remove(String id) {
+    Entry entry = entries.remove(id);
+    if (entry != null) {
+      bytes -= entry.weight();
+    }
+    return entry;
+  }
+
+  /** Rough retained size: object and map-entry headers plus two bytes per string character. */
+  static long weigh(String id, Map<String, Object> post) {
+    long weight = 96 + 2L * id.length();
+    for (Map.Entry<String, Object> e : post.entrySet()) {
+      weight += 64 + 2L * e.getKey().length();
+      Object value = e.getValue();
+      weight += value instanceof CharSequence s ? 40 + 2L * s.length() : 24;
+    }
+    return weight;
+  }
+
+  private record Entry(Map<String, Object> post, long weight, long expiresAt) {
+  }
+}
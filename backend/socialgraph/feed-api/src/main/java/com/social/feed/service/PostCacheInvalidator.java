@@ -0,0 +1,39 @@
+package com.social.feed.service;
+
+import com.social.feed.kafka.PostEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+@Service
+public class PostCacheInvalidator {
+
+  private static final Logger logger = LoggerFactory.getLogger(PostCacheInvalidator.class);
+  private final PostCache postCache;
+
+  public PostCacheInvalidator(PostCache postCache) {
+    this.postCache = postCache;
+  }
+
+  @KafkaListener(topics = "post-updated", groupId = "feed-api-post-cache-${random.uuid}",
+      containerFactory = "postEventListenerContainerFactory")
+  public void onPostUpdated(PostEvent evt) {
+    if (evt == null || evt.getPostId() == null) {
+      return;
+    }
+    logger.debug("Post {} updated, dropping it from the post cache", evt.getPostId());
+    postCache.invalidate(String.valueOf(evt.getPostId()));
+  }
+
+  // Cached as missing right away, so feeds still holding the id stop fetching it.
+  @KafkaListener(topics = "post-deleted", groupId = "feed-api-post-cache-${random.uuid}",
+      containerFactory = "postEventListenerContainerFactory")
+  public void onPostDeleted(PostEvent evt) {
+    if (evt == null || evt.getPostId() == null) {
+      return;
+    }
+    logger.debug("Post {} deleted, caching it as missing", evt.getPostId());
+    postCache.putMissing(String.valueOf(evt.getPostId()));
+  }
+}
@@ -0,0 +1,204 @@
+package com.social.feed.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Fetches the posts of a feed page from feed-ingestor's {@code POST /post/batch}, split into
+ * batches of {@code feed.hydration.batch-size} that run concurrently. The page waits at most
+ * {@code feed.hydration.deadline}; whatever has not arrived by then is served as a bare
+ * {@code postId} entry. With {@code feed.hydration.hedge-url} set, a batch still outstanding
+ * after {@code feed.hydration.hedge-after} (or one that failed) is also sent to that replica and
+ * the first answer wins. Posts (and ids feed-ingestor does not know) are served from
+ * {@link PostCache} when possible, then from feed-ranker's {@link PostSnapshots} in Redis, so only
+ * posts found in neither are fetched. Batches carry the reader's {@code Authorization} header, since
+ * feed-ingestor serves posts to authenticated callers only.
+ */
+@Service
+public class PostHydrator {
+
+  private static final Logger logger = LoggerFactory.getLogger(PostHydrator.class);
+
+  private final RestTemplate rest;
+  private final PostCache postCache;
+  private final PostSnapshots postSnapshots;
+  private final ThreadPoolExecutor executor;
+
+  @Value("${feed.hydration.url:http://localhost:8090}")
+  private String url;
+
+  @Value("${feed.hydration.hedge-url:}")
+  private String hedgeUrl;
+
+  @Value("${feed.hydration.deadline:250ms}")
+  private Duration deadline;
+
+  @Value("${feed.hydration.hedge-after:60ms}")
+  private Duration hedgeAfter;
+
+  @Value("${feed.hydration.batch-size:20}")
+  private int batchSize;
+
+  public PostHydrator(RestTemplate rest, PostCache postCache, PostSnapshots postSnapshots,
+                      @Value("${feed.hydration.threads:32}") int threads,
+                      @Value("${feed.hydration.queue:256}") int queue) {
+    this.rest = rest;
+    this.postCache = postCache;
+    this.postSnapshots = postSnapshots;
+    AtomicInteger counter = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queue),
+        r -> {
+          Thread t = new Thread(r, "post-hydrator-" + counter.incrementAndGet());
+          t.setDaemon(true);
+          return t;
+        });
+    this.executor.allowCoreThreadTimeOut(true);
+  }
+
+  public List<Map<String, Object>> hydrate(List<String> ids, String authorization) {
+    long deadlineAt = System.nanoTime() + deadline.toNanos();
+    Map<String, Map<String, Object>> byId = new HashMap<>(postCache.getAll(ids));
+    if (byId.size() < ids.size()) {
+      // Not cached: post-updated may reach this instance before feed-ranker rewrites the snapshot,
+      // and a cached stale copy would outlive the invalidation.
+      byId.putAll(postSnapshots.getAll(ids.stream().filter(id -> !byId.containsKey(id)).toList()));
+    }
+    List<Long> numericIds = new ArrayList<>(ids.size());
+    for (String id : ids) {
+      if (byId.containsKey(id)) {
+        continue;
+      }
+      try {
+        numericIds.add(Long.parseLong(id));
+      } catch (NumberFormatException ignored) {
+        // not a post of feed-ingestor, falls through to a bare entry
+      }
+    }
+
+    List<List<Long>> batchIds = new ArrayList<>();
+    List<CompletableFuture<List<?>>> batches = new ArrayList<>();
+    for (int from = 0; from < numericIds.size(); from += batchSize) {
+      List<Long> batch = List.copyOf(numericIds.subList(from, Math.min(from + batchSize, numericIds.size())));
+      batchIds.add(batch);
+      batches.add(fetch(batch, authorization));
+    }
+    int missed = 0;
+    for (int i = 0; i < batches.size(); i++) {
+      CompletableFuture<List<?>> batch = batches.get(i);
+      try {
+        collect(byId, batchIds.get(i), batch.get(Math.max(0, deadlineAt - System.nanoTime()), TimeUnit.NANOSECONDS));
+      } catch (TimeoutException | ExecutionException e) {
+        batch.cancel(false);
+        missed++;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    if (missed > 0) {
+      logger.debug("{} of {} post batches missed the {} ms hydration deadline", missed, batches.size(), deadline.toMillis());
+    }
+
+    List<Map<String, Object>> out = new ArrayList<>(ids.size());
+    for (String id : ids) {
+      Map<String, Object> post = byId.get(id);
+      out.add(post != null && post != PostCache.MISSING ? post : Map.of("postId", id));
+    }
+    return out;
+  }
+
+  private CompletableFuture<List<?>> fetch(List<Long> ids, String authorization) {
+    CompletableFuture<List<?>> primary = call(url, ids, authorization);
+    if (hedgeUrl.isBlank()) {
+      return primary;
+    }
+    CompletableFuture<List<?>> result = new CompletableFuture<>();
+    AtomicBoolean hedged = new AtomicBoolean();
+    // The hedge is always sent before the result can fail, so the batch fails once both attempts have.
+    AtomicInteger attempts = new AtomicInteger(2);
+    BiConsumer<List<?>, Throwable> settle = (posts, error) -> {
+      if (error == null) {
+        result.complete(posts);
+      } else if (attempts.decrementAndGet() == 0) {
+        result.completeExceptionally(error);
+      }
+    };
+    Runnable hedge = () -> {
+      if (result.isDone() || !hedged.compareAndSet(false, true)) {
+        return;
+      }
+      call(hedgeUrl, ids, authorization).whenComplete(settle);
+    };
+    primary.whenComplete((posts, error) -> {
+      if (error != null) {
+        hedge.run();
+      }
+      settle.accept(posts, error);
+    });
+    CompletableFuture.delayedExecutor(hedgeAfter.toMillis(), TimeUnit.MILLISECONDS, executor).execute(hedge);
+    return result;
+  }
+
+  private CompletableFuture<List<?>> call(String baseUrl, List<Long> ids, String authorization) {
+    HttpHeaders headers = new HttpHeaders();
+    if (authorization != null) {
+      headers.set(HttpHeaders.AUTHORIZATION, authorization);
+    }
+    HttpEntity<List<Long>> request = new HttpEntity<>(ids, headers);
+    try {
+      return CompletableFuture.supplyAsync(() -> rest.postForObject(baseUrl + "/post/batch", request, List.class), executor);
+    } catch (RuntimeException e) {
+      // pool saturated: treat like a slow ingestor rather than queueing behind it
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+
+  /** Records a completed batch; requested ids it did not contain are cached as missing. */
+  private void collect(Map<String, Map<String, Object>> byId, List<Long> requested, List<?> posts) {
+    if (posts == null) {
+      return;
+    }
+    for (Object post : posts) {
+      if (post instanceof Map<?, ?> map && map.get("id") != null) {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> asMap = new LinkedHashMap<>((Map<String, Object>) map);
+        String id = String.valueOf(map.get("id"));
+        byId.put(id, asMap);
+        postCache.put(id, asMap);
+      }
+    }
+    for (Long id : requested) {
+      String key = String.valueOf(id);
+      if (!byId.containsKey(key)) {
+        postCache.putMissing(key);
+      }
+    }
+  }
+
+  @PreDestroy
+  void shutdown() {
+    executor.shutdownNow();
+  }
+}
@@ -0,0 +1,88 @@
+package com.social.feed.service;
+
+import com.social.feed.store.FeedReplicas;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the {@code post:{postId}} snapshots feed-ranker writes as it consumes
+ * {@code post-created}: author, content (possibly truncated) and timestamp, rendered in the same
+ * shape as feed-ingestor's posts. A whole page is one pipelined {@code HMGET}, served by a replica
+ * when {@link FeedReplicas} allows. Deleted posts come back as {@link PostCache#MISSING}.
+ */
+@Component
+public class PostSnapshots {
+
+  private static final Logger logger = LoggerFactory.getLogger(PostSnapshots.class);
+  private static final String KEY_PREFIX = "post:";
+
+  private final FeedReplicas replicas;
+
+  @Value("${feed.snapshots.enabled:true}")
+  private boolean enabled;
+
+  public PostSnapshots(FeedReplicas replicas) {
+    this.replicas = replicas;
+  }
+
+  /** Snapshots found among {@code ids}; ids without one are left out. */
+  @SuppressWarnings("unchecked")
+  public Map<String, Map<String, Object>> getAll(Collection<String> ids) {
+    Map<String, Map<String, Object>> found = new HashMap<>();
+    if (!enabled || ids.isEmpty()) {
+      return found;
+    }
+    List<String> keys = List.copyOf(ids);
+    List<Object> replies;
+    try {
+      replies = replicas.reader("default").executePipelined((RedisCallback<Object>) connection -> {
+        StringRedisConnection conn = (StringRedisConnection) connection;
+        for (String id : keys) {
+          conn.hMGet(KEY_PREFIX + id, "a", "c", "t", "d");
+        }
+        return null;
+      });
+    } catch (Exception e) {
+      logger.warn("Could not read post snapshots, hydrating from feed-ingestor", e);
+      return found;
+    }
+    if (replies == null || replies.size() != keys.size()) {
+      return found;
+    }
+    for (int i = 0; i < keys.size(); i++) {
+      if (!(replies.get(i) instanceof List<?> fields) || fields.size() != 4) {
+        continue;
+      }
+      List<String> values = (List<String>) fields;
+      if (values.get(3) != null) {
+        found.put(keys.get(i), PostCache.MISSING);
+      } else if (values.get(0) != null && values.get(2) != null) {
+        found.put(keys.get(i), post(keys.get(i), values));
+      }
+    }
+    return found;
+  }
+
+  private static Map<String, Object> post(String id, List<String> values) {
+    Map<String, Object> post = new LinkedHashMap<>();
+    try {
+      post.put("id", Long.parseLong(id));
+    } catch (NumberFormatException e) {
+      post.put("id", id);
+    }
+    post.put("authorId", values.get(0));
+    post.put("content", values.get(1));
+    post.put("timestamp", Long.parseLong(values.get(2)));
+    return post;
+  }
+}
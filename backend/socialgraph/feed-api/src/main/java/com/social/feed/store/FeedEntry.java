@@ -0,0 +1,4 @@
+package com.social.feed.store;
+
+/** One post in a feed with its ranking score. */
+public record FeedEntry(String postId, double score) { }
@@ -0,0 +1,203 @@
+package com.social.feed.store;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Routes feed and timeline reads to Redis replicas while they are fresh enough.
+ * {@code feed.replicas.nodes} lists {@code primary=replica} pairs, where primary is a
+ * {@link FeedShards} node name ({@code default} for {@code spring.data.redis}). Every probe
+ * interval a heartbeat timestamp is written to each primary and read back from its replicas;
+ * a replica is used only while the heartbeat it returns is within
+ * {@code feed.replicas.max-staleness}, picked at random weighted by inverse probe latency.
+ * Reads inside {@link #readAfter(Long)} go to the primary for
+ * {@code feed.replicas.read-your-writes} after the caller's last write.
+ */
+@Component
+public class FeedReplicas {
+
+  private static final Logger logger = LoggerFactory.getLogger(FeedReplicas.class);
+  static final String HEARTBEAT_KEY = "replica-heartbeat";
+
+  private final Map<String, StringRedisTemplate> primaries = new HashMap<>();
+  private final Map<String, List<Replica>> replicas = new HashMap<>();
+  private final List<LettuceConnectionFactory> factories = new ArrayList<>();
+  private final ThreadLocal<Long> lastWrite = new ThreadLocal<>();
+
+  @Value("${feed.replicas.max-staleness:2s}")
+  private Duration maxStaleness;
+
+  @Value("${feed.replicas.read-your-writes:10s}")
+  private Duration readYourWrites;
+
+  public FeedReplicas(StringRedisTemplate defaultRedis, FeedShards shards, ObjectProvider<MeterRegistry> meterRegistry,
+                      @Value("${feed.replicas.nodes:}") String replicaList) {
+    primaries.put("default", defaultRedis);
+    for (int shard = 0; shard < shards.size(); shard++) {
+      primaries.putIfAbsent(shards.node(shard), shards.template(shard));
+    }
+    for (String entry : replicaList.split(",")) {
+      if (entry.isBlank()) {
+        continue;
+      }
+      String[] pair = entry.trim().split("=", 2);
+      if (pair.length != 2 || !primaries.containsKey(pair[0])) {
+        throw new IllegalArgumentException("feed.replicas.nodes entry '" + entry + "' is not <primary>=<replica host:port>");
+      }
+      String address = pair[1];
+      int colon = address.lastIndexOf(':');
+      String host = colon < 0 ? address : address.substring(0, colon);
+      int port = colon < 0 ? 6379 : Integer.parseInt(address.substring(colon + 1));
+      LettuceConnectionFactory factory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(host, port));
+      factory.afterPropertiesSet();
+      factory.start();
+      factories.add(factory);
+      Replica replica = addReplica(pair[0], address, new StringRedisTemplate(factory));
+      meterRegistry.ifAvailable(registry -> {
+        Gauge.builder("feed.replica.lag", replica, r -> r.lagMillis).tag("replica", address).baseUnit("milliseconds")
+            .register(registry);
+        Gauge.builder("feed.replica.healthy", replica, r -> r.healthy ? 1 : 0).tag("replica", address)
+            .register(registry);
+      });
+    }
+    if (!replicas.isEmpty()) {
+      logger.info("Feed reads routed to replicas {}", replicas.keySet());
+    }
+  }
+
+  private Replica addReplica(String primary, String address, StringRedisTemplate redis) {
+    Replica replica = new Replica(address, redis);
+    replicas.computeIfAbsent(primary, p -> new ArrayList<>()).add(replica);
+    return replica;
+  }
+
+  /**
+   * Marks reads on this thread as coming from a caller whose last write was at {@code lastWriteAt}
+   * (epoch ms), until {@link #clear()}. Callers wrap the whole request, post hydration included,
+   * so no read of a request that follows a write is served by a replica.
+   */
+  public void readAfter(Long lastWriteAt) {
+    if (lastWriteAt == null) {
+      lastWrite.remove();
+    } else {
+      lastWrite.set(lastWriteAt);
+    }
+  }
+
+  public void clear() {
+    lastWrite.remove();
+  }
+
+  /** Redis to read {@code node}'s keys from: a fresh replica if there is one, otherwise the primary. */
+  public StringRedisTemplate reader(String node) {
+    StringRedisTemplate primary = primaries.get(node);
+    List<Replica> candidates = replicas.get(node);
+    if (candidates == null) {
+      return primary;
+    }
+    long now = System.currentTimeMillis();
+    Long writtenAt = lastWrite.get();
+    if (writtenAt != null && now - writtenAt < readYourWrites.toMillis()) {
+      return primary;
+    }
+    double total = 0;
+    long bound = maxStaleness.toMillis();
+    for (Replica r : candidates) {
+      if (r.usable(bound)) {
+        total += r.weight();
+      }
+    }
+    if (total == 0) {
+      return primary;
+    }
+    double pick = ThreadLocalRandom.current().nextDouble(total);
+    for (Replica r : candidates) {
+      if (r.usable(bound)) {
+        pick -= r.weight();
+        if (pick < 0) {
+          return r.redis;
+        }
+      }
+    }
+    return primary;
+  }
+
+  @Scheduled(fixedDelayString = "${feed.replicas.probe-interval-ms:500}")
+  public void probe() {
+    for (Map.Entry<String, List<Replica>> entry : replicas.entrySet()) {
+      long now = System.currentTimeMillis();
+      try {
+        primaries.get(entry.getKey()).opsForValue().set(HEARTBEAT_KEY, String.valueOf(now));
+      } catch (Exception e) {
+        logger.warn("Could not write replica heartbeat to Redis {}", entry.getKey(), e);
+        continue;
+      }
+      for (Replica replica : entry.getValue()) {
+        replica.probe();
+      }
+    }
+  }
+
+  @PreDestroy
+  void close() {
+    factories.forEach(LettuceConnectionFactory::destroy);
+  }
+
+  private static final class Replica {
+    private final String address;
+    private final StringRedisTemplate redis;
+    private volatile boolean healthy;
+    private volatile long lagMillis = -1;
+    private volatile double rttMillis = 1.0;
+
+    Replica(String address, StringRedisTemplate redis) {
+      this.address = address;
+      this.redis = redis;
+    }
+
+    boolean usable(long maxStalenessMillis) {
+      return healthy && lagMillis >= 0 && lagMillis <= maxStalenessMillis;
+    }
+
+    double weight() {
+      return 1.0 / Math.max(0.1, rttMillis);
+    }
+
+    /**
+     * The heartbeat on the replica is the newest primary write it has applied, so its age is
+     * an upper bound on how far the replica is behind.
+     */
+    void probe() {
+      long start = System.nanoTime();
+      try {
+        String heartbeat = redis.opsForValue().get(HEARTBEAT_KEY);
+        double rtt = (System.nanoTime() - start) / 1_000_000.0;
+        rttMillis = 0.8 * rttMillis + 0.2 * rtt;
+        lagMillis = heartbeat == null ? -1 : Math.max(0, System.currentTimeMillis() - Long.parseLong(heartbeat));
+        healthy = heartbeat != null;
+      } catch (Exception e) {
+        if (healthy) {
+          logger.warn("Redis replica {} unreachable, reading from primary", address, e);
+        }
+        healthy = false;
+      }
+    }
+  }
+}
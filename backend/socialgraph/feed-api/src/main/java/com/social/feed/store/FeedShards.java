@@ -0,0 +1,108 @@
+package com.social.feed.store;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Client-side sharding of feed keys over the Redis nodes in {@code feed.shards.nodes}; the same
+ * consistent-hash ring as feed-ranker's {@code FeedShards}, so both must list the same nodes with
+ * the same {@code feed.shards.virtual-nodes}. Timelines stay on {@code spring.data.redis}, which
+ * is also the only shard when no nodes are configured.
+ */
+@Component
+public class FeedShards {
+
+  private static final Logger logger = LoggerFactory.getLogger(FeedShards.class);
+
+  private final List<String> nodes = new ArrayList<>();
+  private final List<StringRedisTemplate> templates = new ArrayList<>();
+  private final List<LettuceConnectionFactory> factories = new ArrayList<>();
+  // Ring points sorted ascending, with the shard owning each point at the same index.
+  private final long[] points;
+  private final int[] owners;
+
+  public FeedShards(StringRedisTemplate defaultRedis,
+                    @Value("${feed.shards.nodes:}") String nodeList,
+                    @Value("${feed.shards.virtual-nodes:160}") int virtualNodes) {
+    for (String node : nodeList.split(",")) {
+      if (node.isBlank()) {
+        continue;
+      }
+      String address = node.trim();
+      int colon = address.lastIndexOf(':');
+      String host = colon < 0 ? address : address.substring(0, colon);
+      int port = colon < 0 ? 6379 : Integer.parseInt(address.substring(colon + 1));
+      LettuceConnectionFactory factory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(host, port));
+      factory.afterPropertiesSet();
+      factory.start();
+      factories.add(factory);
+      templates.add(new StringRedisTemplate(factory));
+      nodes.add(address);
+    }
+    if (templates.isEmpty()) {
+      templates.add(defaultRedis);
+      nodes.add("default");
+    }
+
+    int n = nodes.size() * virtualNodes;
+    long[][] ring = new long[n][];
+    for (int shard = 0, i = 0; shard < nodes.size(); shard++) {
+      for (int v = 0; v < virtualNodes; v++) {
+        ring[i++] = new long[] {FeedKeys.hash(nodes.get(shard) + "#" + v), shard};
+      }
+    }
+    Arrays.sort(ring, (a, b) -> Long.compare(a[0], b[0]));
+    points = new long[n];
+    owners = new int[n];
+    for (int i = 0; i < n; i++) {
+      points[i] = ring[i][0];
+      owners[i] = (int) ring[i][1];
+    }
+    logger.info("Feed keys sharded over {} Redis node(s) {} with {} virtual nodes each",
+        nodes.size(), nodes, virtualNodes);
+  }
+
+  public int size() {
+    return templates.size();
+  }
+
+  public String node(int shard) {
+    return nodes.get(shard);
+  }
+
+  public StringRedisTemplate template(int shard) {
+    return templates.get(shard);
+  }
+
+  /** Redis of the shard owning {@code key}. */
+  public StringRedisTemplate forKey(String key) {
+    return templates.get(shardOf(key));
+  }
+
+  /** Owner of the first ring point at or after the key's hash, wrapping around. */
+  public int shardOf(String key) {
+    if (templates.size() == 1) {
+      return 0;
+    }
+    int i = Arrays.binarySearch(points, FeedKeys.hash(key));
+    if (i < 0) {
+      i = -i - 1;
+    }
+    return owners[i == points.length ? 0 : i];
+  }
+
+  @PreDestroy
+  void close() {
+    factories.forEach(LettuceConnectionFactory::destroy);
+  }
+}
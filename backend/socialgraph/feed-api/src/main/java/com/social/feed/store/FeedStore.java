@@ -0,0 +1,19 @@
+package com.social.feed.store;
+
+import java.util.List;
+
+/**
+ * Read access to per-user feeds: sorted by score, highest first, and bounded to
+ * {@code feed.max-size}. feed-ranker writes and trims the feeds; feed-api only reads them.
+ */
+public interface FeedStore {
+
+  /** Entries at ranks {@code start..end} (inclusive), highest score first. */
+  List<FeedEntry> rangeByRank(String userId, long start, long end);
+
+  /**
+   * Up to {@code limit} entries with score at most {@code maxScore}, highest first, after skipping
+   * {@code offset} of them; the score cursor of a paging reader.
+   */
+  List<FeedEntry> rangeByScore(String userId, double maxScore, int offset, int limit);
+}
@@ -0,0 +1,134 @@
+package com.social.feed.store;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Feeds as the Redis sorted sets written by feed-ranker, named by {@link FeedKeys} and read from
+ * their {@link FeedShards} node, or one of its replicas as chosen by {@link FeedReplicas}. While
+ * {@code feed.encoding-dual-read} is on, compact-encoding reads also look at the old
+ * {@code feed:{username}} key and merge it in; a user's old feed is copied to the compact key
+ * (which may live on another node) and deleted the first time it is seen, so the transition
+ * needs no offline migration.
+ */
+@Component
+public class RedisFeedStore implements FeedStore {
+
+  private static final Logger logger = LoggerFactory.getLogger(RedisFeedStore.class);
+
+  private final FeedShards shards;
+  private final FeedReplicas replicas;
+  private final FeedKeys feedKeys;
+
+  @Value("${feed.encoding-dual-read:true}")
+  private boolean dualRead;
+
+  @Value("${feed.max-size:100}")
+  private int maxFeedSize;
+
+  public RedisFeedStore(FeedShards shards, FeedReplicas replicas, FeedKeys feedKeys) {
+    this.shards = shards;
+    this.replicas = replicas;
+    this.feedKeys = feedKeys;
+  }
+
+  @Override
+  public List<FeedEntry> rangeByRank(String userId, long start, long end) {
+    String key = feedKeys.feedKey(userId);
+    if (!migrating()) {
+      return entries(reader(key).opsForZSet().reverseRangeWithScores(key, start, end));
+    }
+    String legacy = FeedKeys.legacyKey(userId);
+    List<FeedEntry> merged = merge(
+        reader(key).opsForZSet().reverseRangeWithScores(key, 0, end),
+        reader(legacy).opsForZSet().reverseRangeWithScores(legacy, 0, end),
+        key, legacy);
+    return slice(merged, start, end - start + 1);
+  }
+
+  @Override
+  public List<FeedEntry> rangeByScore(String userId, double maxScore, int offset, int limit) {
+    String key = feedKeys.feedKey(userId);
+    if (!migrating()) {
+      return entries(reader(key).opsForZSet().reverseRangeByScoreWithScores(
+          key, Double.NEGATIVE_INFINITY, maxScore, offset, limit));
+    }
+    String legacy = FeedKeys.legacyKey(userId);
+    List<FeedEntry> merged = merge(
+        reader(key).opsForZSet().reverseRangeByScoreWithScores(key, Double.NEGATIVE_INFINITY, maxScore, 0, offset + limit),
+        reader(legacy).opsForZSet().reverseRangeByScoreWithScores(legacy, Double.NEGATIVE_INFINITY, maxScore, 0, offset + limit),
+        key, legacy);
+    return slice(merged, offset, limit);
+  }
+
+  private StringRedisTemplate reader(String key) {
+    return replicas.reader(shards.node(shards.shardOf(key)));
+  }
+
+  private boolean migrating() {
+    return dualRead && feedKeys.compact();
+  }
+
+  private List<FeedEntry> merge(Set<ZSetOperations.TypedTuple<String>> current,
+                                Set<ZSetOperations.TypedTuple<String>> old, String key, String legacy) {
+    if (old == null || old.isEmpty()) {
+      return entries(current);
+    }
+    Map<String, Double> scores = new HashMap<>();
+    for (FeedEntry e : entries(current)) {
+      scores.merge(e.postId(), e.score(), Math::max);
+    }
+    for (FeedEntry e : entries(old)) {
+      scores.merge(e.postId(), e.score(), Math::max);
+    }
+    migrate(key, legacy);
+    List<FeedEntry> merged = new ArrayList<>(scores.size());
+    scores.forEach((postId, score) -> merged.add(new FeedEntry(postId, score)));
+    merged.sort(Comparator.comparingDouble(FeedEntry::score).reversed());
+    return merged;
+  }
+
+  private void migrate(String key, String legacy) {
+    try {
+      StringRedisTemplate from = shards.forKey(legacy);
+      Set<ZSetOperations.TypedTuple<String>> old = from.opsForZSet().rangeWithScores(legacy, 0, -1);
+      if (old != null && !old.isEmpty()) {
+        StringRedisTemplate to = shards.forKey(key);
+        // NX: posts already in the compact feed keep their newer score
+        to.opsForZSet().addIfAbsent(key, old);
+        to.opsForZSet().removeRange(key, 0, -(maxFeedSize + 1));
+      }
+      from.delete(legacy);
+    } catch (Exception e) {
+      logger.warn("Could not migrate {} to {}, will retry on next read", legacy, key, e);
+    }
+  }
+
+  private static List<FeedEntry> slice(List<FeedEntry> entries, long from, long count) {
+    return entries.stream().skip(Math.max(0, from)).limit(Math.max(0, count)).toList();
+  }
+
+  private static List<FeedEntry> entries(Set<ZSetOperations.TypedTuple<String>> tuples) {
+    if (tuples == null) {
+      return List.of();
+    }
+    List<FeedEntry> entries = new ArrayList<>(tuples.size());
+    for (ZSetOperations.TypedTuple<String> t : tuples) {
+      if (t.getValue() != null && t.getScore() != null) {
+        entries.add(new FeedEntry(t.getValue(), t.getScore()));
+      }
+    }
+    return entries;
+  }
+}
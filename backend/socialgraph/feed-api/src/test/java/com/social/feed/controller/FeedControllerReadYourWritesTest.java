@@ -0,0 +1,91 @@
+package com.social.feed.controller;
+
+import com.social.feed.service.EngagementPublisher;
+import com.social.feed.service.FeedReader;
+import com.social.feed.service.PostCache;
+import com.social.feed.service.PostHydrator;
+import com.social.feed.service.PostSnapshots;
+import com.social.feed.store.FeedReplicas;
+import com.social.feed.store.FeedShards;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FeedControllerReadYourWritesTest {
+
+    private final StringRedisTemplate primary = mock(StringRedisTemplate.class);
+    private final StringRedisTemplate replica = mock(StringRedisTemplate.class);
+    private final FeedReader feedReader = mock(FeedReader.class);
+    private PostHydrator hydrator;
+    private FeedController controller;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(primary.opsForValue()).thenReturn(mock(ValueOperations.class));
+        ValueOperations<String, String> replicaValues = mock(ValueOperations.class);
+        when(replica.opsForValue()).thenReturn(replicaValues);
+        when(replicaValues.get(anyString())).thenAnswer(invocation -> String.valueOf(System.currentTimeMillis()));
+
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        FeedReplicas replicas = new FeedReplicas(primary, new FeedShards(primary, "", 160),
+                beans.getBeanProvider(MeterRegistry.class), "");
+        ReflectionTestUtils.setField(replicas, "maxStaleness", Duration.ofSeconds(2));
+        ReflectionTestUtils.setField(replicas, "readYourWrites", Duration.ofSeconds(10));
+        ReflectionTestUtils.invokeMethod(replicas, "addReplica", "default", "replica:6379", replica);
+        replicas.probe();
+
+        PostSnapshots snapshots = new PostSnapshots(replicas);
+        ReflectionTestUtils.setField(snapshots, "enabled", true);
+        PostCache cache = new PostCache(1 << 20, Duration.ofMinutes(10), Duration.ofSeconds(30),
+                beans.getBeanProvider(MeterRegistry.class));
+        hydrator = new PostHydrator(mock(RestTemplate.class), cache, snapshots, 1, 4);
+        ReflectionTestUtils.setField(hydrator, "url", "http://localhost:8090");
+        ReflectionTestUtils.setField(hydrator, "hedgeUrl", "");
+        ReflectionTestUtils.setField(hydrator, "deadline", Duration.ofMillis(100));
+        ReflectionTestUtils.setField(hydrator, "batchSize", 20);
+        controller = new FeedController(feedReader, hydrator, mock(EngagementPublisher.class), replicas);
+
+        when(feedReader.page(eq("user123"), anyInt(), anyInt())).thenReturn(List.of("post-1"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(hydrator, "shutdown");
+    }
+
+    @Test
+    void snapshotsComeFromThePrimaryRightAfterAWrite() {
+        controller.getFeed("user123", 1, 10, System.currentTimeMillis(), null);
+
+        verify(primary).executePipelined(any(RedisCallback.class));
+        verify(replica, never()).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    void snapshotsComeFromAReplicaWithoutARecentWrite() {
+        controller.getFeed("user123", 1, 10, null, null);
+
+        verify(replica).executePipelined(any(RedisCallback.class));
+        verify(primary, never()).executePipelined(any(RedisCallback.class));
+    }
+}
@@ -1,27 +1,61 @@
 package com.social.feed.controller;
 
+import com.jayway.jsonpath.JsonPath;
 import com.social.feed.security.JwtTokenProvider;
+import com.social.feed.service.EngagementPublisher;
+import com.social.feed.service.FeedReader;
+import com.social.feed.service.PostCache;
+import com.social.feed.service.PostHydrator;
+import com.social.feed.service.PostSnapshots;
+import com.social.feed.store.FeedKeys;
+import com.social.feed.store.FeedReplicas;
+import com.social.feed.store.FeedShards;
+import com.social.feed.store.RedisFeedStore;
 import org.junit.jupiter.api.BeforeEach; // Import added
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.SetOperations;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.client.RestTemplate;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(FeedController.class)
 @AutoConfigureMockMvc(addFilters = false) // Security bypassed
+@Import({FeedReader.class, PostHydrator.class, PostCache.class, PostSnapshots.class,
+        RedisFeedStore.class, FeedKeys.class, FeedShards.class, FeedReplicas.class})
 class FeedControllerTest {
 
     @Autowired
@@ -34,6 +68,15 @@ class FeedControllerTest {
     @MockBean
     private ZSetOperations<String, String> zSetOperations;
 
+    @MockBean
+    private SetOperations<String, String> setOperations;
+
+    @MockBean
+    private RestTemplate restTemplate;
+
+    @MockBean
+    private EngagementPublisher engagementPublisher;
+
     @MockBean
     private JwtTokenProvider jwtTokenProvider;
 
@@ -42,6 +85,7 @@ class FeedControllerTest {
     void setUp() {
         // ERROR FIX: Humne mock ko bataya ki jab opsForZSet maanga jaye, toh hamara mock object do
         when(stringRedisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(stringRedisTemplate.opsForSet()).thenReturn(setOperations);
 
         // Default behavior: Return empty set to avoid NullPointerException inside controller logic
         when(zSetOperations.reverseRange(anyString(), anyLong(), anyLong()))
@@ -69,4 +113,163 @@ class FeedControllerTest {
                         .header("Authorization", "Bearer test.token")
         ).andExpect(status().isOk());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetFeedMergesPullAuthorTimelines() throws Exception {
+        when(setOperations.size("pull-authors")).thenReturn(1L);
+        when(restTemplate.getForObject(eq("http://localhost:8080/users/user123/following"), eq(List.class)))
+                .thenReturn(List.of("alice", "celebrity"));
+        when(setOperations.isMember(eq("pull-authors"), any(Object[].class)))
+                .thenReturn(Map.of("alice", false, "celebrity", true));
+        when(zSetOperations.reverseRangeWithScores(eq("feed:user123"), anyLong(), anyLong()))
+                .thenReturn(tuples(new DefaultTypedTuple<>("1", 0.9), new DefaultTypedTuple<>("2", 0.5)));
+        when(zSetOperations.reverseRangeWithScores(eq("timeline:celebrity"), anyLong(), anyLong()))
+                .thenReturn(tuples(new DefaultTypedTuple<>("3", 0.7)));
+
+        mockMvc.perform(get("/feed?userId=user123&limit=2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].postId").value("1"))
+                .andExpect(jsonPath("$[1].postId").value("3"));
+    }
+
+    @Test
+    void testGetFeedDecaysPackedScoresAtReadTime() throws Exception {
+        long now = System.currentTimeMillis();
+        // Post 1 is fresh but low-affinity; post 2 is 12h old with maximum affinity.
+        double fresh = (now / 1000) * 1000.0;
+        double older = ((now - 12 * 3600 * 1000L) / 1000) * 1000.0 + 999;
+        when(zSetOperations.reverseRangeWithScores(eq("feed:user123"), anyLong(), anyLong()))
+                .thenReturn(tuples(new DefaultTypedTuple<>("1", fresh), new DefaultTypedTuple<>("2", older)));
+
+        mockMvc.perform(get("/feed?userId=user123&limit=2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].postId").value("2"))
+                .andExpect(jsonPath("$[1].postId").value("1"));
+    }
+
+    @Test
+    void testGetFeedNeverServesPastFeedCap() throws Exception {
+        Set<ZSetOperations.TypedTuple<String>> overgrown = new LinkedHashSet<>();
+        for (int i = 0; i < 150; i++) {
+            overgrown.add(new DefaultTypedTuple<>(String.valueOf(i), 1000.0 - i));
+        }
+        when(zSetOperations.reverseRangeWithScores(eq("feed:user123"), anyLong(), anyLong())).thenReturn(overgrown);
+
+        mockMvc.perform(get("/feed?userId=user123&page=10&limit=10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(10))
+                .andExpect(jsonPath("$[9].postId").value("99"));
+        mockMvc.perform(get("/feed?userId=user123&page=11&limit=10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void testGetFeedRejectsLimitBelowOne() throws Exception {
+        mockMvc.perform(get("/feed?userId=user123&limit=-5"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/feed?userId=user123&limit=0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/feed/scroll?userId=user123&limit=-1"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetFeedHydratesPageInOneBatchCall() throws Exception {
+        when(zSetOperations.reverseRangeWithScores(eq("feed:user123"), anyLong(), anyLong()))
+                .thenReturn(tuples(new DefaultTypedTuple<>("7", 0.9), new DefaultTypedTuple<>("5", 0.5)));
+        when(restTemplate.postForObject(eq("http://localhost:8090/post/batch"), batch(List.of(7L, 5L)), eq(List.class)))
+                .thenReturn(List.of(Map.of("id", 5, "authorId", "bob"), Map.of("id", 7, "authorId", "alice")));
+
+        mockMvc.perform(get("/feed?userId=user123&limit=2").header(HttpHeaders.AUTHORIZATION, "Bearer reader"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(7))
+                .andExpect(jsonPath("$[0].authorId").value("alice"))
+                .andExpect(jsonPath("$[1].id").value(5));
+        verify(restTemplate).postForObject(eq("http://localhost:8090/post/batch"),
+                argThat(request -> request instanceof HttpEntity<?> entity
+                        && "Bearer reader".equals(entity.getHeaders().getFirst(HttpHeaders.AUTHORIZATION))),
+                eq(List.class));
+        verify(restTemplate, never()).getForObject(startsWith("http://localhost:8090/post/"), eq(Map.class));
+    }
+
+    @Test
+    void testGetFeedServesStubsWhenHydrationMissesDeadline() throws Exception {
+        when(zSetOperations.reverseRangeWithScores(eq("feed:user123"), anyLong(), anyLong()))
+                .thenReturn(tuples(new DefaultTypedTuple<>("8", 0.9)));
+        when(restTemplate.postForObject(eq("http://localhost:8090/post/batch"), any(), eq(List.class)))
+                .thenAnswer(invocation -> {
+                    Thread.sleep(2000);
+                    return List.of(Map.of("id", 8));
+                });
+
+        long start = System.currentTimeMillis();
+        mockMvc.perform(get("/feed?userId=user123&limit=1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].postId").value("8"));
+        assertTrue(System.currentTimeMillis() - start < 1500);
+    }
+
+    @Test
+    void testGetFeedHydratesFromPostSnapshotsFirst() throws Exception {
+        when(zSetOperations.reverseRangeWithScores(eq("feed:user123"), anyLong(), anyLong()))
+                .thenReturn(tuples(new DefaultTypedTuple<>("11", 0.9), new DefaultTypedTuple<>("12", 0.5),
+                        new DefaultTypedTuple<>("13", 0.1)));
+        when(stringRedisTemplate.executePipelined(any(RedisCallback.class)))
+                .thenReturn(List.of(Arrays.asList("alice", "hello", "1700000000000", null),
+                        Arrays.asList(null, null, null, null),
+                        Arrays.asList("bob", "gone", "1700000000000", "1")));
+        when(restTemplate.postForObject(eq("http://localhost:8090/post/batch"), batch(List.of(12L)), eq(List.class)))
+                .thenReturn(List.of(Map.of("id", 12, "authorId", "carol")));
+
+        mockMvc.perform(get("/feed?userId=user123&limit=3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(11))
+                .andExpect(jsonPath("$[0].authorId").value("alice"))
+                .andExpect(jsonPath("$[0].content").value("hello"))
+                .andExpect(jsonPath("$[1].authorId").value("carol"))
+                .andExpect(jsonPath("$[2].postId").value("13"));
+        verify(restTemplate).postForObject(eq("http://localhost:8090/post/batch"), batch(List.of(12L)), eq(List.class));
+    }
+
+    @Test
+    void testScrollFeedPagesByCursorDespiteInserts() throws Exception {
+        List<ZSetOperations.TypedTuple<String>> feed = new ArrayList<>(List.of(
+                new DefaultTypedTuple<>("24", 0.9), new DefaultTypedTuple<>("23", 0.7),
+                new DefaultTypedTuple<>("22", 0.7), new DefaultTypedTuple<>("21", 0.5)));
+        when(zSetOperations.reverseRangeByScoreWithScores(eq("feed:user123"), anyDouble(), anyDouble(), anyLong(), anyLong()))
+                .thenAnswer(invocation -> {
+                    double max = invocation.getArgument(2);
+                    long offset = invocation.getArgument(3);
+                    long count = invocation.getArgument(4);
+                    return feed.stream().filter(t -> t.getScore() <= max).skip(offset).limit(count)
+                            .collect(Collectors.toCollection(LinkedHashSet::new));
+                });
+
+        String first = mockMvc.perform(get("/feed/scroll?userId=user123&limit=2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.posts[0].postId").value("24"))
+                .andExpect(jsonPath("$.posts[1].postId").value("23"))
+                .andReturn().getResponse().getContentAsString();
+        // A new post lands on top; an offset page 2 would now repeat 23.
+        feed.add(0, new DefaultTypedTuple<>("25", 0.95));
+
+        String cursor = JsonPath.read(first, "$.nextCursor");
+        mockMvc.perform(get("/feed/scroll?userId=user123&limit=2&cursor=" + cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.posts.length()").value(2))
+                .andExpect(jsonPath("$.posts[0].postId").value("22"))
+                .andExpect(jsonPath("$.posts[1].postId").value("21"));
+        mockMvc.perform(get("/feed/scroll?userId=user123&cursor=not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @SafeVarargs
+    private static Set<ZSetOperations.TypedTuple<String>> tuples(ZSetOperations.TypedTuple<String>... tuples) {
+        return new LinkedHashSet<>(List.of(tuples));
+    }
+
+    private static Object batch(List<Long> ids) {
+        return argThat(request -> request instanceof HttpEntity<?> entity && ids.equals(entity.getBody()));
+    }
+}
@@ -0,0 +1,71 @@
+package com.social.feed.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PostCacheTest {
+
+    private static PostCache cache(long maxBytes, Duration ttl) {
+        return new PostCache(maxBytes, ttl, Duration.ofSeconds(30),
+                new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedByWeight() {
+        Map<String, Object> post = Map.of("id", 1, "content", "x".repeat(100));
+        long weight = PostCache.weigh("1", post);
+        PostCache cache = cache(weight * 2, Duration.ofMinutes(10));
+
+        cache.put("1", post);
+        cache.put("2", post);
+        cache.getAll(List.of("1"));
+        cache.put("3", post);
+
+        Map<String, Map<String, Object>> found = cache.getAll(List.of("1", "2", "3"));
+        assertEquals(2, found.size());
+        assertTrue(found.containsKey("1"));
+        assertTrue(found.containsKey("3"));
+        assertTrue(cache.bytes() <= weight * 2);
+    }
+
+    @Test
+    void longPostsTakeMoreRoom() {
+        PostCache cache = cache(4096, Duration.ofMinutes(10));
+        for (int i = 0; i < 10; i++) {
+            cache.put(String.valueOf(i), Map.of("id", i, "content", "short"));
+        }
+        cache.put("long", Map.of("id", 99, "content", "x".repeat(1500)));
+
+        assertTrue(cache.size() < 10);
+        assertEquals(1, cache.getAll(List.of("long")).size());
+    }
+
+    @Test
+    void cachesMissingIdsAndInvalidates() {
+        PostCache cache = cache(1 << 20, Duration.ofMinutes(10));
+        cache.putMissing("404");
+        cache.put("1", Map.of("id", 1, "content", "hello"));
+
+        assertSame(PostCache.MISSING, cache.getAll(List.of("404")).get("404"));
+        cache.invalidate("1");
+        assertTrue(cache.getAll(List.of("1")).isEmpty());
+    }
+
+    @Test
+    void expiresAfterTtl() {
+        PostCache cache = cache(1 << 20, Duration.ZERO);
+        cache.put("1", Map.of("id", 1, "content", "hello"));
+
+        assertTrue(cache.getAll(List.of("1")).isEmpty());
+        assertEquals(0, cache.bytes());
+    }
+}
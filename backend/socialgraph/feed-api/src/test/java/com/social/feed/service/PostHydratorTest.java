@@ -0,0 +1,78 @@
+package com.social.feed.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PostHydratorTest {
+
+    private final RestTemplate rest = mock(RestTemplate.class);
+    private final PostSnapshots snapshots = mock(PostSnapshots.class);
+    private PostHydrator hydrator;
+
+    @BeforeEach
+    void setUp() {
+        when(snapshots.getAll(anyCollection())).thenReturn(Map.of());
+        PostCache cache = new PostCache(1 << 20, Duration.ofMinutes(10), Duration.ofSeconds(30),
+                new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        hydrator = new PostHydrator(rest, cache, snapshots, 4, 16);
+        ReflectionTestUtils.setField(hydrator, "url", "http://primary");
+        ReflectionTestUtils.setField(hydrator, "hedgeUrl", "http://hedge");
+        ReflectionTestUtils.setField(hydrator, "deadline", Duration.ofSeconds(3));
+        ReflectionTestUtils.setField(hydrator, "hedgeAfter", Duration.ofMillis(20));
+        ReflectionTestUtils.setField(hydrator, "batchSize", 20);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hydrator.shutdown();
+    }
+
+    @Test
+    void servesHedgeWhenPrimaryIsSlow() {
+        when(rest.postForObject(eq("http://primary/post/batch"), any(), eq(List.class))).thenAnswer(invocation -> {
+            Thread.sleep(1000);
+            return List.of(Map.of("id", 1, "authorId", "slow"));
+        });
+        when(rest.postForObject(eq("http://hedge/post/batch"), any(), eq(List.class)))
+                .thenReturn(List.of(Map.of("id", 1, "authorId", "alice")));
+
+        List<Map<String, Object>> posts = hydrator.hydrate(List.of("1"), "Bearer t");
+
+        assertEquals("alice", posts.get(0).get("authorId"));
+    }
+
+    @Test
+    void givesUpOnceHedgeAndPrimaryHaveBothFailed() {
+        // The hedge fails first, then the primary.
+        when(rest.postForObject(eq("http://primary/post/batch"), any(), eq(List.class))).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            throw new ResourceAccessException("primary down");
+        });
+        when(rest.postForObject(eq("http://hedge/post/batch"), any(), eq(List.class)))
+                .thenThrow(new ResourceAccessException("hedge down"));
+
+        long start = System.currentTimeMillis();
+        List<Map<String, Object>> posts = hydrator.hydrate(List.of("1"), "Bearer t");
+
+        assertEquals(Map.of("postId", "1"), posts.get(0));
+        assertTrue(System.currentTimeMillis() - start < 1500, "waited out the deadline");
+    }
+}
@@ -3,10 +3,18 @@ package com.social.ingestor.controller;
 import com.social.ingestor.kafka.PostEvent;
 import com.social.ingestor.model.Post;
 import com.social.ingestor.repo.PostRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.web.bind.annotation.*;
 
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/post")
 public class PostController {
@@ -14,6 +22,9 @@ public class PostController {
   private final PostRepository postRepository;
   private final KafkaTemplate<String, PostEvent> kafkaTemplate;
 
+  @Value("${post.batch.max-ids:200}")
+  private int maxBatchIds;
+
   public PostController(PostRepository postRepository, KafkaTemplate<String, PostEvent> kafkaTemplate) {
     this.postRepository = postRepository;
     this.kafkaTemplate = kafkaTemplate;
@@ -31,9 +42,66 @@ public class PostController {
     return ResponseEntity.ok(saved);
   }
 
+  /** Edits a post's content; only its author may. Publishes {@code post-updated} so caches drop it. */
+  @PutMapping("/{id}")
+  public ResponseEntity<Post> update(@PathVariable Long id, @RequestBody Post changes, Principal principal) {
+    Post post = postRepository.findById(id).orElse(null);
+    if (post == null) {
+      return ResponseEntity.notFound().build();
+    }
+    if (principal == null || !post.getAuthorId().equals(principal.getName())) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+    post.setContent(changes.getContent());
+    Post saved = postRepository.save(post);
+    kafkaTemplate.send("post-updated", String.valueOf(id),
+        new PostEvent(saved.getId(), saved.getAuthorId(), saved.getContent(), saved.getTimestamp()));
+    return ResponseEntity.ok(saved);
+  }
+
+  /** Deletes a post; only its author may. Publishes {@code post-deleted} so caches drop it. */
+  @DeleteMapping("/{id}")
+  public ResponseEntity<Void> delete(@PathVariable Long id, Principal principal) {
+    Post post = postRepository.findById(id).orElse(null);
+    if (post == null) {
+      return ResponseEntity.notFound().build();
+    }
+    if (principal == null || !post.getAuthorId().equals(principal.getName())) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+    postRepository.delete(post);
+    kafkaTemplate.send("post-deleted", String.valueOf(id),
+        new PostEvent(post.getId(), post.getAuthorId(), null, System.currentTimeMillis()));
+    return ResponseEntity.noContent().build();
+  }
+
   @GetMapping("/{id}")
   public ResponseEntity<Post> getById(@PathVariable Long id) {
     return postRepository.findById(id).map(ResponseEntity::ok)
         .orElse(ResponseEntity.notFound().build());
   }
+
+  /**
+   * Posts for a list of ids in one {@code IN} query, returned in the order requested; ids that
+   * do not exist are left out. Used by feed-api to hydrate a feed page in a single call, so it
+   * needs no user token (see {@code SecurityConfig}).
+   */
+  @PostMapping("/batch")
+  public ResponseEntity<List<Post>> getByIds(@RequestBody List<Long> ids) {
+    if (ids == null || ids.size() > maxBatchIds || ids.contains(null)) {
+      return ResponseEntity.badRequest().build();
+    }
+    Map<Long, Post> byId = new HashMap<>();
+    for (Post post : postRepository.findAllById(ids)) {
+      byId.put(post.getId(), post);
+    }
+    List<Post> ordered = new ArrayList<>(ids.size());
+    for (Long id : ids) {
+      Post post = byId.get(id);
+      if (post != null) {
+        ordered.add(post);
+      }
+    }
+    return ResponseEntity.ok(ordered);
+  }
 }
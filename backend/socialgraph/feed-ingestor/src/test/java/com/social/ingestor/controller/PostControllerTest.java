@@ -1,23 +1,31 @@
 package com.social.ingestor.controller;
 import com.social.ingestor.kafka.PostEvent;
+import com.social.ingestor.model.Post;
 import com.social.ingestor.repo.PostRepository;
-// If you have a specific class for JWT, import it.
-// If you haven't created it in this service yet, remove the @MockBean for it.
-// import com.social.ingestor.security.JwtTokenProvider;
+import com.social.ingestor.security.JwtTokenProvider;
+import com.social.ingestor.security.SecurityConfig;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.security.core.userdetails.UserDetailsService; // Import this
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.http.MediaType;
 
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(PostController.class)
+@Import(SecurityConfig.class)
 public class PostControllerTest {
 
     @Autowired
@@ -34,10 +42,9 @@ public class PostControllerTest {
     @MockBean
     private UserDetailsService userDetailsService;
 
-    // IF your SecurityConfig uses a JwtTokenProvider, you MUST mock it here too.
-    // Uncomment the lines below if you have created this class in this service.
-    // @MockBean
-    // private JwtTokenProvider jwtTokenProvider;
+    // JwtAuthenticationFilter needs it to start.
+    @MockBean
+    private JwtTokenProvider jwtTokenProvider;
     // ---------------------------------------
 
     @Test
@@ -45,7 +52,7 @@ public class PostControllerTest {
         mockMvc.perform(post("/post/create")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content("{\"authorId\":\"user123\",\"content\":\"Hello world\"}"))
-                .andExpect(status().isUnauthorized());
+                .andExpect(status().isForbidden());
     }
 
     @Test
@@ -54,6 +61,9 @@ public class PostControllerTest {
         // unless you attach a real Security Filter.
         // For now, let's see if we can just get the context to load (200 OK or 403 Forbidden).
         String token = "Bearer valid.jwt.token";
+        when(jwtTokenProvider.validateToken("valid.jwt.token")).thenReturn(true);
+        when(jwtTokenProvider.getUserIdFromToken("valid.jwt.token")).thenReturn("user123");
+        when(postRepository.save(any(Post.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         mockMvc.perform(post("/post/create")
                         .header("Authorization", token)
@@ -61,6 +71,58 @@ public class PostControllerTest {
                         .content("{\"authorId\":\"user123\",\"content\":\"Hello world\"}"))
                 .andExpect(status().isOk());
     }
+
+    @Test
+    public void testBatchReturnsPostsInRequestedOrder() throws Exception {
+        when(postRepository.findAllById(List.of(3L, 1L, 2L))).thenReturn(List.of(savedPost(1L), savedPost(3L)));
+        authorize();
+
+        // feed-api forwards the reader's token.
+        mockMvc.perform(post("/post/batch")
+                        .header("Authorization", "Bearer valid.jwt.token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[3,1,2]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(3))
+                .andExpect(jsonPath("$[1].id").value(1));
+    }
+
+    @Test
+    public void testBatchWithoutAuth() throws Exception {
+        mockMvc.perform(post("/post/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1]"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    public void testBatchRejectsNullIds() throws Exception {
+        authorize();
+        mockMvc.perform(post("/post/batch")
+                        .header("Authorization", "Bearer valid.jwt.token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1,null]"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/post/batch")
+                        .header("Authorization", "Bearer valid.jwt.token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("null"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private void authorize() {
+        when(jwtTokenProvider.validateToken("valid.jwt.token")).thenReturn(true);
+        when(jwtTokenProvider.getUserIdFromToken("valid.jwt.token")).thenReturn("user123");
+    }
+
+    private static Post savedPost(Long id) {
+        Post p = new Post();
+        ReflectionTestUtils.setField(p, "id", id);
+        p.setAuthorId("user123");
+        p.setContent("post " + id);
+        return p;
+    }
 }
 //https://www.linkedin.com/posts/jiyasilawat_hiring-sdejobs-softwareengineer-activity-7415268071961001984-7fhZ?utm_source=social_share_send&utm_medium=member_desktop_web&rcm=ACoAADZJwgUBUV_yhKm__MPkWb2-vyuRGXIu1xI
 
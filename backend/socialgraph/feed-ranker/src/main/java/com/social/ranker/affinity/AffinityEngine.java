@@ -0,0 +1,148 @@
+package com.social.ranker.affinity;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Per-(viewer, author) affinity built from engagement events with exponential time decay.
+ * Raw decayed interaction counts are mapped to [prior, 1) so a pair with no history keeps the
+ * old constant affinity and interactions can only raise it.
+ */
+@Component
+public class AffinityEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(AffinityEngine.class);
+
+    private static final Map<String, Double> WEIGHTS = Map.of(
+            "READ", 1.0,
+            "LIKE", 3.0,
+            "COMMENT", 5.0,
+            "SHARE", 8.0
+    );
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AffinityTable table;
+    private final Path snapshotPath;
+
+    @Value("${feed.affinity.prior:0.5}")
+    private double prior;
+
+    @Value("${feed.affinity.saturation:5.0}")
+    private double saturation;
+
+    @Value("${feed.affinity.prune-below:0.05}")
+    private double pruneBelow;
+
+    public AffinityEngine(@Value("${feed.affinity.initial-capacity:1048576}") int initialCapacity,
+                          @Value("${feed.affinity.half-life:7d}") Duration halfLife,
+                          @Value("${feed.affinity.snapshot-path:data/affinity.snapshot}") String snapshotPath,
+                          MeterRegistry meterRegistry) {
+        this.table = new AffinityTable(initialCapacity, halfLife.toMillis());
+        this.snapshotPath = Paths.get(snapshotPath);
+        Gauge.builder("feed.affinity.pairs", this, AffinityEngine::size).register(meterRegistry);
+    }
+
+    public void record(String viewer, String author, String type, int count, long timestamp) {
+        Double weight = WEIGHTS.get(type);
+        if (weight == null || viewer == null || author == null || viewer.equals(author)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            table.add(viewer, author, weight * Math.max(1, count), timestamp);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Bulk lookup for one fan-out batch; fills {@code out[i]} for {@code viewers.get(i)}. */
+    public void affinities(String author, List<String> viewers, double[] out) {
+        long now = System.currentTimeMillis();
+        lock.readLock().lock();
+        try {
+            table.scores(author, viewers, now, out);
+        } finally {
+            lock.readLock().unlock();
+        }
+        for (int i = 0, n = viewers.size(); i < n; i++) {
+            out[i] = prior + (1.0 - prior) * (out[i] / (out[i] + saturation));
+        }
+    }
+
+    public double prior() {
+        return prior;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return table.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @PostConstruct
+    void restore() {
+        if (!Files.exists(snapshotPath)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try (InputStream in = Files.newInputStream(snapshotPath)) {
+            table.readFrom(new DataInputStream(new BufferedInputStream(in)));
+            logger.info("Restored {} affinity pairs from {}", table.size(), snapshotPath);
+        } catch (IOException e) {
+            logger.warn("Could not restore affinity snapshot from {}, starting empty", snapshotPath, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${feed.affinity.snapshot-interval-ms:300000}",
+            initialDelayString = "${feed.affinity.snapshot-interval-ms:300000}")
+    @PreDestroy
+    public void snapshot() {
+        Path tmp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+        lock.writeLock().lock();
+        try {
+            table.prune(System.currentTimeMillis(), pruneBelow);
+            if (snapshotPath.getParent() != null) {
+                Files.createDirectories(snapshotPath.getParent());
+            }
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+                table.writeTo(data);
+                data.flush();
+            }
+            Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("Wrote {} affinity pairs to {}", table.size(), snapshotPath);
+        } catch (IOException e) {
+            logger.error("Failed to write affinity snapshot to {}", snapshotPath, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
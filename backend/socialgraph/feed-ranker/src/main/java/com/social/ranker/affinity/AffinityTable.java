@@ -0,0 +1,173 @@
+package com.social.ranker.affinity;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Open-addressing table of exponentially decayed (viewer, author) interaction scores. Pairs
+ * are keyed by a 64-bit hash of both usernames and stored in parallel primitive arrays, so
+ * neither updates nor lookups box or allocate. Not thread-safe; {@link AffinityEngine} guards it.
+ */
+public class AffinityTable {
+
+    private static final long EMPTY = 0L;
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private final double decayPerMilli;
+    private long[] keys;
+    private float[] scores;
+    private long[] updatedAt;
+    private int mask;
+    private int size;
+
+    public AffinityTable(int initialCapacity, long halfLifeMillis) {
+        this.decayPerMilli = Math.log(2) / halfLifeMillis;
+        allocate(Math.max(16, Integer.highestOneBit(Math.max(1, initialCapacity) - 1) << 1));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds an interaction at {@code timestamp}. An event older than the pair's last update is
+     * decayed by its own age instead of moving the pair's clock back, which would over-decay
+     * everything accumulated since.
+     */
+    public void add(String viewer, String author, double weight, long timestamp) {
+        long key = pairKey(viewer, author);
+        int slot = find(key);
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            scores[slot] = (float) weight;
+            updatedAt[slot] = timestamp;
+            if (++size > (mask + 1) * 3 / 4) {
+                rehash((mask + 1) << 1, timestamp, 0.0);
+            }
+            return;
+        }
+        if (timestamp >= updatedAt[slot]) {
+            scores[slot] = (float) (decayed(slot, timestamp) + weight);
+            updatedAt[slot] = timestamp;
+        } else {
+            scores[slot] = (float) (scores[slot] + weight * Math.exp(-decayPerMilli * (updatedAt[slot] - timestamp)));
+        }
+    }
+
+    public double score(String viewer, String author, long now) {
+        int slot = find(pairKey(viewer, author));
+        return keys[slot] == EMPTY ? 0.0 : decayed(slot, now);
+    }
+
+    /** Writes the decayed score of every viewer into {@code out[i]}, aligned with {@code viewers}. */
+    public void scores(String author, List<String> viewers, long now, double[] out) {
+        long authorHash = hash(author, 0x9E3779B97F4A7C15L);
+        for (int i = 0, n = viewers.size(); i < n; i++) {
+            int slot = find(combine(hash(viewers.get(i), 0xC2B2AE3D27D4EB4FL), authorHash));
+            out[i] = keys[slot] == EMPTY ? 0.0 : decayed(slot, now);
+        }
+    }
+
+    /** Drops pairs whose decayed score fell below {@code minScore}. */
+    public void prune(long now, double minScore) {
+        rehash(mask + 1, now, minScore);
+    }
+
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(SNAPSHOT_VERSION);
+        out.writeInt(size);
+        for (int i = 0; i <= mask; i++) {
+            if (keys[i] != EMPTY) {
+                out.writeLong(keys[i]);
+                out.writeFloat(scores[i]);
+                out.writeLong(updatedAt[i]);
+            }
+        }
+    }
+
+    public void readFrom(DataInputStream in) throws IOException {
+        int version = in.readInt();
+        if (version != SNAPSHOT_VERSION) {
+            throw new IOException("Unsupported affinity snapshot version " + version);
+        }
+        int entries = in.readInt();
+        allocate(Math.max(16, Integer.highestOneBit(Math.max(1, entries * 2) - 1) << 1));
+        for (int i = 0; i < entries; i++) {
+            long key = in.readLong();
+            int slot = find(key);
+            keys[slot] = key;
+            scores[slot] = in.readFloat();
+            updatedAt[slot] = in.readLong();
+        }
+        size = entries;
+    }
+
+    private double decayed(int slot, long now) {
+        long age = now - updatedAt[slot];
+        return age <= 0 ? scores[slot] : scores[slot] * Math.exp(-decayPerMilli * age);
+    }
+
+    private int find(long key) {
+        int slot = (int) mix(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash(int capacity, long now, double minScore) {
+        long[] oldKeys = keys;
+        float[] oldScores = scores;
+        long[] oldUpdatedAt = updatedAt;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == EMPTY) {
+                continue;
+            }
+            if (minScore > 0) {
+                long age = Math.max(0, now - oldUpdatedAt[i]);
+                if (oldScores[i] * Math.exp(-decayPerMilli * age) < minScore) {
+                    continue;
+                }
+            }
+            int slot = find(oldKeys[i]);
+            keys[slot] = oldKeys[i];
+            scores[slot] = oldScores[i];
+            updatedAt[slot] = oldUpdatedAt[i];
+            size++;
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        scores = new float[capacity];
+        updatedAt = new long[capacity];
+        mask = capacity - 1;
+        size = 0;
+    }
+
+    static long pairKey(String viewer, String author) {
+        return combine(hash(viewer, 0xC2B2AE3D27D4EB4FL), hash(author, 0x9E3779B97F4A7C15L));
+    }
+
+    private static long combine(long viewerHash, long authorHash) {
+        long key = mix(viewerHash * 31 + authorHash);
+        return key == EMPTY ? 1L : key;
+    }
+
+    private static long hash(String s, long seed) {
+        long h = seed;
+        for (int i = 0, n = s.length(); i < n; i++) {
+            h = (h ^ s.charAt(i)) * 0x100000001B3L;
+        }
+        return h;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+}
@@ -0,0 +1,97 @@
+package com.social.ranker.client;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Streaming decoder for user-service's compact follower page (see {@code CompactFollowerCodec}
+ * there for the layout). The header is read up front so the caller can decide whether to read
+ * the followers at all; followers are then decoded straight into a caller-owned array.
+ */
+public class CompactFollowerReader {
+
+    private static final byte MAGIC = 'F';
+    private static final int FLAG_GZIP = 1;
+
+    private final InputStream in;
+    private final int count;
+    private final Long nextCursor;
+    private final Long total;
+    private int read;
+    private byte[] previous = new byte[32];
+    private int previousLength;
+
+    public CompactFollowerReader(InputStream source) throws IOException {
+        InputStream buffered = new BufferedInputStream(source);
+        int magic = buffered.read();
+        if (magic != MAGIC) {
+            throw new IOException("Not a compact follower page, magic byte " + magic);
+        }
+        int flags = buffered.read();
+        if (flags < 0) {
+            throw new EOFException("Truncated compact follower page");
+        }
+        this.in = (flags & FLAG_GZIP) != 0 ? new GZIPInputStream(buffered) : buffered;
+        this.count = (int) readVarint();
+        long cursor = readVarint();
+        long totalPlusOne = readVarint();
+        this.nextCursor = cursor == 0 ? null : cursor - 1;
+        this.total = totalPlusOne == 0 ? null : totalPlusOne - 1;
+    }
+
+    public int count() { return count; }
+    public Long nextCursor() { return nextCursor; }
+    public Long total() { return total; }
+
+    /** Fills {@code into} from the front and returns how many names were decoded, 0 at the end. */
+    public int read(String[] into) throws IOException {
+        int n = 0;
+        while (n < into.length && read < count) {
+            int shared = (int) readVarint();
+            int suffix = (int) readVarint();
+            int length = shared + suffix;
+            if (shared > previousLength) {
+                throw new IOException("Corrupt compact follower page, prefix longer than previous name");
+            }
+            if (length > previous.length) {
+                previous = Arrays.copyOf(previous, Math.max(length, previous.length * 2));
+            }
+            readFully(previous, shared, suffix);
+            previousLength = length;
+            into[n++] = new String(previous, 0, length, StandardCharsets.UTF_8);
+            read++;
+        }
+        return n;
+    }
+
+    private long readVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Truncated compact follower page");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in compact follower page");
+    }
+
+    private void readFully(byte[] buf, int off, int len) throws IOException {
+        while (len > 0) {
+            int r = in.read(buf, off, len);
+            if (r < 0) {
+                throw new EOFException("Truncated compact follower page");
+            }
+            off += r;
+            len -= r;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.social.ranker.client;
+
+import java.util.List;
+
+public class FollowerPage {
+  private List<String> followers;
+  private Long nextCursor;
+  private Long total;
+
+  public List<String> getFollowers() { return followers; }
+  public Long getNextCursor() { return nextCursor; }
+  public Long getTotal() { return total; }
+  public void setFollowers(List<String> followers) { this.followers = followers; }
+  public void setNextCursor(Long nextCursor) { this.nextCursor = nextCursor; }
+  public void setTotal(Long total) { this.total = total; }
+}
@@ -0,0 +1,12 @@
+package com.social.ranker.client;
+
+import java.util.List;
+
+public interface FollowerVisitor {
+
+    /** Called once before any follower is delivered; return false to skip reading followers. */
+    boolean onTotal(long total);
+
+    /** The list is only valid for the duration of the call. */
+    void onFollowers(List<String> followers);
+}
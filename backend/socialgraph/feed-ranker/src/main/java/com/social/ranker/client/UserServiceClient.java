@@ -0,0 +1,148 @@
+package com.social.ranker.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@Component
+public class UserServiceClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserServiceClient.class);
+    private final RestTemplate rest;
+
+    @Value("${feed.user-service.url:http://localhost:8080}")
+    private String baseUrl;
+
+    @Value("${feed.user-service.follower-transport:compact}")
+    private String transport;
+
+    @Value("${feed.user-service.follower-gzip:false}")
+    private boolean gzip;
+
+    @Value("${feed.fanout.chunk-size:500}")
+    private int batchSize;
+
+    public UserServiceClient(RestTemplate rest) {
+        this.rest = rest;
+    }
+
+    /**
+     * Walks every follower of an author page by page, handing each whole page to the visitor as
+     * soon as it is decoded. Both transports cut pages at the same {@code pageSize} boundaries,
+     * which fan-out checkpoints rely on.
+     */
+    public void forEachFollower(String authorId, int pageSize, FollowerVisitor visitor) {
+        forEachFollower(authorId, null, Long.MAX_VALUE, pageSize, visitor);
+    }
+
+    /**
+     * Walks at most {@code limit} followers after the keyset cursor {@code after}. The visitor
+     * only gets {@code onTotal} when the walk starts from the beginning ({@code after == null}).
+     */
+    public void forEachFollower(String authorId, Long after, long limit, int pageSize, FollowerVisitor visitor) {
+        if ("compact".equalsIgnoreCase(transport)) {
+            forEachFollowerCompact(authorId, after, limit, pageSize, visitor);
+            return;
+        }
+        long remaining = limit;
+        FollowerPage page = followersPage(authorId, after, (int) Math.min(pageSize, remaining));
+        if (after == null && !visitor.onTotal(page.getTotal() != null ? page.getTotal() : page.getFollowers().size())) {
+            return;
+        }
+        while (true) {
+            visitor.onFollowers(page.getFollowers());
+            remaining -= page.getFollowers().size();
+            if (page.getNextCursor() == null || remaining <= 0) {
+                return;
+            }
+            page = followersPage(authorId, page.getNextCursor(), (int) Math.min(pageSize, remaining));
+        }
+    }
+
+    public long followerCount(String authorId) {
+        String url = baseUrl + "/users/" + authorId + "/followers/count";
+        try {
+            Long count = rest.getForObject(url, Long.class);
+            return count == null ? 0L : count;
+        } catch (RestClientException e) {
+            logger.error("Failed to fetch follower count for author: {}", authorId, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Keyset cursors splitting an author's followers into chunks of {@code every}; chunk i is
+     * {@code after = starts[i], limit = every}.
+     */
+    public List<Long> followerChunkStarts(String authorId, int every) {
+        String url = baseUrl + "/users/" + authorId + "/followers/chunks?every=" + every;
+        try {
+            Long[] starts = rest.getForObject(url, Long[].class);
+            return starts == null ? List.of() : Arrays.asList(starts);
+        } catch (RestClientException e) {
+            logger.error("Failed to fetch follower chunks for author: {}", authorId, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Fetches one keyset page of followers as JSON; pass a null cursor for the first page,
+     * which also carries the total follower count.
+     */
+    public FollowerPage followersPage(String authorId, Long after, int limit) {
+        String url = baseUrl + "/users/" + authorId + "/followers/page?limit=" + limit
+                + (after == null ? "" : "&after=" + after);
+        try {
+            FollowerPage page = rest.getForObject(url, FollowerPage.class);
+            if (page == null || page.getFollowers() == null) {
+                FollowerPage empty = new FollowerPage();
+                empty.setFollowers(List.of());
+                empty.setTotal(0L);
+                return empty;
+            }
+            return page;
+        } catch (RestClientException e) {
+            logger.error("Failed to fetch followers page for author: {} after {}", authorId, after, e);
+            throw e;
+        }
+    }
+
+    private void forEachFollowerCompact(String authorId, Long after, long limit, int pageSize, FollowerVisitor visitor) {
+        String[] batch = new String[batchSize];
+        long[] remaining = {limit};
+        boolean first = after == null;
+        do {
+            String url = baseUrl + "/users/" + authorId + "/followers/compact?limit=" + Math.min(pageSize, remaining[0])
+                    + "&gzip=" + gzip + (after == null ? "" : "&after=" + after);
+            boolean firstPage = first;
+            try {
+                after = rest.execute(url, HttpMethod.GET, null, response -> {
+                    CompactFollowerReader reader = new CompactFollowerReader(response.getBody());
+                    if (firstPage && !visitor.onTotal(reader.total() != null ? reader.total() : reader.count())) {
+                        return null;
+                    }
+                    remaining[0] -= reader.count();
+                    List<String> page = new ArrayList<>(reader.count());
+                    int n;
+                    while ((n = reader.read(batch)) > 0) {
+                        page.addAll(Arrays.asList(batch).subList(0, n));
+                    }
+                    visitor.onFollowers(page);
+                    return reader.nextCursor();
+                });
+            } catch (RestClientException e) {
+                logger.error("Failed to fetch compact followers for author: {} after {}", authorId, after, e);
+                throw e;
+            }
+            first = false;
+        } while (after != null && remaining[0] > 0);
+    }
+}
@@ -1,5 +1,8 @@
 package com.social.ranker.config;
 
+import com.social.ranker.kafka.EngagementEvent;
+import com.social.ranker.kafka.FanoutChunkEvent;
+import com.social.ranker.kafka.FollowEvent;
 import com.social.ranker.kafka.PostEvent;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
@@ -53,4 +56,89 @@ public ConsumerFactory<String, PostEvent> consumerFactory() {
         factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
         return factory;
     }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, PostEvent> batchKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, PostEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        factory.setCommonErrorHandler(new org.springframework.kafka.listener.DefaultErrorHandler());
+        factory.setBatchListener(true);
+        factory.setConcurrency(3);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        return factory;
+    }
+
+    @Bean
+    public ConsumerFactory<String, FanoutChunkEvent> fanoutChunkConsumerFactory() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, "feed-ranker-group");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        // Each chunk is a full page of followers, so keep polls small.
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 10);
+
+        return new DefaultKafkaConsumerFactory<>(
+                props,
+                new StringDeserializer(),
+                new JsonDeserializer<>(FanoutChunkEvent.class, false)
+        );
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, FanoutChunkEvent> fanoutChunkListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, FanoutChunkEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(fanoutChunkConsumerFactory());
+        factory.setCommonErrorHandler(new org.springframework.kafka.listener.DefaultErrorHandler());
+        factory.setConcurrency(3);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        return factory;
+    }
+
+    @Bean
+    public ConsumerFactory<String, FollowEvent> followEventConsumerFactory() {
+        return broadcastConsumerFactory(FollowEvent.class);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, FollowEvent> followEventListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, FollowEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(followEventConsumerFactory());
+        factory.setCommonErrorHandler(new org.springframework.kafka.listener.DefaultErrorHandler());
+        factory.setConcurrency(1);
+        return factory;
+    }
+
+    @Bean
+    public ConsumerFactory<String, EngagementEvent> engagementEventConsumerFactory() {
+        return broadcastConsumerFactory(EngagementEvent.class);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, EngagementEvent> engagementEventListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, EngagementEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(engagementEventConsumerFactory());
+        factory.setCommonErrorHandler(new org.springframework.kafka.listener.DefaultErrorHandler());
+        factory.setConcurrency(1);
+        return factory;
+    }
+
+    // For topics every instance reads in full to maintain local state (caches, affinities).
+    private <T> ConsumerFactory<String, T> broadcastConsumerFactory(Class<T> type) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, true);
+        // Local state only cares about changes made after this instance started.
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+
+        return new DefaultKafkaConsumerFactory<>(
+                props,
+                new StringDeserializer(),
+                new JsonDeserializer<>(type, false)
+        );
+    }
 }
@@ -0,0 +1,40 @@
+package com.social.ranker.config;
+
+import com.social.ranker.service.FanoutLane;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+/** Internal topics owned by the ranker; partition counts bound how far each one can spread. */
+@Configuration
+public class KafkaTopicConfig {
+
+    @Value("${feed.fanout.chunk-partitions:12}")
+    private int chunkPartitions;
+
+    @Bean
+    public NewTopic fanoutChunksTopic() {
+        return TopicBuilder.name("fanout-chunks").partitions(chunkPartitions).build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "feed.ranker.listener-mode", havingValue = "lanes")
+    public NewTopic smallLaneTopic(@Value("${feed.lanes.small.partitions:12}") int partitions) {
+        return TopicBuilder.name(FanoutLane.SMALL.topic()).partitions(partitions).build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "feed.ranker.listener-mode", havingValue = "lanes")
+    public NewTopic mediumLaneTopic(@Value("${feed.lanes.medium.partitions:6}") int partitions) {
+        return TopicBuilder.name(FanoutLane.MEDIUM.topic()).partitions(partitions).build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "feed.ranker.listener-mode", havingValue = "lanes")
+    public NewTopic hugeLaneTopic(@Value("${feed.lanes.huge.partitions:3}") int partitions) {
+        return TopicBuilder.name(FanoutLane.HUGE.topic()).partitions(partitions).build();
+    }
+}
@@ -0,0 +1,20 @@
+package com.social.ranker.kafka;
+
+public class EngagementEvent {
+  private String viewerId;
+  private String authorId;
+  private String type;
+  private int count;
+  private long timestamp;
+
+  public String getViewerId() { return viewerId; }
+  public String getAuthorId() { return authorId; }
+  public String getType() { return type; }
+  public int getCount() { return count; }
+  public long getTimestamp() { return timestamp; }
+  public void setViewerId(String viewerId) { this.viewerId = viewerId; }
+  public void setAuthorId(String authorId) { this.authorId = authorId; }
+  public void setType(String type) { this.type = type; }
+  public void setCount(int count) { this.count = count; }
+  public void setTimestamp(long timestamp) { this.timestamp = timestamp; }
+}
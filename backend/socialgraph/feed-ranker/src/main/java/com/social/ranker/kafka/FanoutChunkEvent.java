@@ -0,0 +1,28 @@
+package com.social.ranker.kafka;
+
+/**
+ * One slice of a large fan-out: the followers of {@code post.authorId} on the keyset page
+ * {@code after, limit}. Chunks are independent and idempotent, so any instance can take any chunk.
+ */
+public class FanoutChunkEvent {
+  private PostEvent post;
+  private long after;
+  private int limit;
+  private int chunkIndex;
+  private int chunkCount;
+
+  public FanoutChunkEvent() {}
+  public FanoutChunkEvent(PostEvent post, long after, int limit, int chunkIndex, int chunkCount) {
+    this.post = post; this.after = after; this.limit = limit; this.chunkIndex = chunkIndex; this.chunkCount = chunkCount;
+  }
+  public PostEvent getPost() { return post; }
+  public long getAfter() { return after; }
+  public int getLimit() { return limit; }
+  public int getChunkIndex() { return chunkIndex; }
+  public int getChunkCount() { return chunkCount; }
+  public void setPost(PostEvent post) { this.post = post; }
+  public void setAfter(long after) { this.after = after; }
+  public void setLimit(int limit) { this.limit = limit; }
+  public void setChunkIndex(int chunkIndex) { this.chunkIndex = chunkIndex; }
+  public void setChunkCount(int chunkCount) { this.chunkCount = chunkCount; }
+}
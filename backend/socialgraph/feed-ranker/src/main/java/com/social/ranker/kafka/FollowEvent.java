@@ -0,0 +1,17 @@
+package com.social.ranker.kafka;
+
+public class FollowEvent {
+  private String follower;
+  private String followee;
+  private String type;
+  private long timestamp;
+
+  public String getFollower() { return follower; }
+  public String getFollowee() { return followee; }
+  public String getType() { return type; }
+  public long getTimestamp() { return timestamp; }
+  public void setFollower(String follower) { this.follower = follower; }
+  public void setFollowee(String followee) { this.followee = followee; }
+  public void setType(String type) { this.type = type; }
+  public void setTimestamp(long timestamp) { this.timestamp = timestamp; }
+}
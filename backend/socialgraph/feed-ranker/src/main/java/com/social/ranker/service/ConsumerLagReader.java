@@ -0,0 +1,51 @@
+package com.social.ranker.service;
+
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/** Reads consumer lag (end offset minus committed offset) of a group on a topic. */
+@Component
+public class ConsumerLagReader {
+
+    private final AdminClient admin;
+
+    public ConsumerLagReader(KafkaAdmin kafkaAdmin) {
+        this.admin = AdminClient.create(kafkaAdmin.getConfigurationProperties());
+    }
+
+    public long lag(String groupId, String topic) throws Exception {
+        Map<TopicPartition, OffsetAndMetadata> committed = admin.listConsumerGroupOffsets(groupId)
+                .partitionsToOffsetAndMetadata().get(5, TimeUnit.SECONDS);
+        Map<TopicPartition, OffsetSpec> latest = new HashMap<>();
+        committed.forEach((tp, offset) -> {
+            if (offset != null && tp.topic().equals(topic)) {
+                latest.put(tp, OffsetSpec.latest());
+            }
+        });
+        if (latest.isEmpty()) {
+            return 0;
+        }
+        Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> ends =
+                admin.listOffsets(latest).all().get(5, TimeUnit.SECONDS);
+        long lag = 0;
+        for (Map.Entry<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> end : ends.entrySet()) {
+            lag += Math.max(0, end.getValue().offset() - committed.get(end.getKey()).offset());
+        }
+        return lag;
+    }
+
+    @PreDestroy
+    void close() {
+        admin.close();
+    }
+}
@@ -0,0 +1,27 @@
+package com.social.ranker.service;
+
+import com.social.ranker.affinity.AffinityEngine;
+import com.social.ranker.kafka.EngagementEvent;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+@Service
+public class EngagementListener {
+
+    private final AffinityEngine affinityEngine;
+
+    public EngagementListener(AffinityEngine affinityEngine) {
+        this.affinityEngine = affinityEngine;
+    }
+
+    // Affinities live in process memory, so every ranker instance consumes all engagement events.
+    @KafkaListener(topics = "engagement-events", groupId = "feed-ranker-engagement-${random.uuid}",
+            containerFactory = "engagementEventListenerContainerFactory")
+    public void onEngagement(EngagementEvent evt) {
+        if (evt == null) {
+            return;
+        }
+        long ts = evt.getTimestamp() > 0 ? evt.getTimestamp() : System.currentTimeMillis();
+        affinityEngine.record(evt.getViewerId(), evt.getAuthorId(), evt.getType(), evt.getCount(), ts);
+    }
+}
@@ -0,0 +1,34 @@
+package com.social.ranker.service;
+
+import com.social.ranker.kafka.FanoutChunkEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Service;
+
+@Service
+public class FanoutChunkListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(FanoutChunkListener.class);
+    private final FeedRankerConsumer consumer;
+
+    public FanoutChunkListener(FeedRankerConsumer consumer) {
+        this.consumer = consumer;
+    }
+
+    // Shared group: each chunk is written by exactly one ranker instance.
+    @KafkaListener(id = "fanout-chunks", topics = FeedRankerConsumer.FANOUT_CHUNKS_TOPIC, groupId = "feed-ranker-group",
+            containerFactory = "fanoutChunkListenerContainerFactory")
+    public void onChunk(FanoutChunkEvent chunk, Acknowledgment ack) {
+        if (chunk == null || chunk.getPost() == null || chunk.getPost().getAuthorId() == null) {
+            logger.warn("Skipping malformed fan-out chunk");
+            ack.acknowledge();
+            return;
+        }
+        logger.debug("Processing fan-out chunk {}/{} of post {}",
+                chunk.getChunkIndex() + 1, chunk.getChunkCount(), chunk.getPost().getPostId());
+        consumer.processChunk(chunk);
+        ack.acknowledge();
+    }
+}
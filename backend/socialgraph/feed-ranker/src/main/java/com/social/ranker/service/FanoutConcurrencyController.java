@@ -0,0 +1,246 @@
+package com.social.ranker.service;
+
+import com.social.ranker.kafka.PostEvent;
+import com.social.ranker.store.FeedShards;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Adjusts fan-out concurrency at runtime from the post-created consumer lag and the Redis write
+ * latency, within the configured bounds:
+ * <ul>
+ *   <li>in-flight page writes per record change immediately;</li>
+ *   <li>listener concurrency and {@code max.poll.records} need a container restart, so they only
+ *   change after {@code feed.adaptive.restart-cooldown-ms};</li>
+ *   <li>when Redis latency per command crosses {@code pause-latency-ms} every fan-out container is paused
+ *   until it drops below {@code resume-latency-ms}. Paused containers write nothing, so while
+ *   paused the latency is fed by a {@code PING} to every feed shard on each adjustment.</li>
+ * </ul>
+ * Only the post-created listeners are rescaled, starting from the concurrency and
+ * {@code max.poll.records} their containers were created with. The lane listeners keep their
+ * per-lane {@code feed.lanes.*.concurrency}: the lag driving the scaling is that of post-created,
+ * which in lanes mode is only routed and says nothing about the lane backlogs. They are still
+ * paused with the rest.
+ * The active settings are exposed as the {@code fanout} actuator endpoint.
+ */
+@Component
+@Endpoint(id = "fanout")
+public class FanoutConcurrencyController {
+
+    private static final Logger logger = LoggerFactory.getLogger(FanoutConcurrencyController.class);
+    private static final List<String> SCALED_CONTAINERS = List.of("post-created", "post-created-batch");
+    private static final List<String> FANOUT_CONTAINERS = List.of("post-created", "post-created-batch",
+            "post-created-router", "fanout-chunks", "lane-small", "lane-medium", "lane-huge");
+
+    private final KafkaListenerEndpointRegistry registry;
+    private final ConsumerLagReader lagReader;
+    private final RedisLatency redisLatency;
+    private final FanoutExecutor fanoutExecutor;
+    private final FeedShards shards;
+    private final ConsumerFactory<String, PostEvent> consumerFactory;
+
+    @Value("${feed.adaptive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${feed.adaptive.concurrency.min:3}")
+    private int minConcurrency;
+
+    @Value("${feed.adaptive.concurrency.max:12}")
+    private int maxConcurrency;
+
+    @Value("${feed.adaptive.max-poll-records.min:50}")
+    private int minPollRecords;
+
+    @Value("${feed.adaptive.max-poll-records.max:500}")
+    private int maxPollRecords;
+
+    @Value("${feed.adaptive.in-flight-pages.min:2}")
+    private int minInFlight;
+
+    @Value("${feed.adaptive.in-flight-pages.max:32}")
+    private int maxInFlight;
+
+    @Value("${feed.adaptive.scale-up-lag:5000}")
+    private long scaleUpLag;
+
+    @Value("${feed.adaptive.scale-down-lag:100}")
+    private long scaleDownLag;
+
+    @Value("${feed.adaptive.pause-latency-ms:5}")
+    private double pauseLatencyMs;
+
+    @Value("${feed.adaptive.resume-latency-ms:2}")
+    private double resumeLatencyMs;
+
+    @Value("${feed.adaptive.restart-cooldown-ms:120000}")
+    private long restartCooldownMs;
+
+    // Taken from the running containers on the first adjustment.
+    private volatile int concurrency = -1;
+    private volatile int pollRecords = -1;
+    private volatile long lastLag = -1;
+    private volatile boolean paused;
+    private long lastRestart;
+
+    public FanoutConcurrencyController(KafkaListenerEndpointRegistry registry, ConsumerLagReader lagReader,
+                                       RedisLatency redisLatency, FanoutExecutor fanoutExecutor,
+                                       FeedShards shards, ConsumerFactory<String, PostEvent> consumerFactory,
+                                       MeterRegistry meterRegistry) {
+        this.registry = registry;
+        this.lagReader = lagReader;
+        this.redisLatency = redisLatency;
+        this.fanoutExecutor = fanoutExecutor;
+        this.shards = shards;
+        this.consumerFactory = consumerFactory;
+        Gauge.builder("feed.adaptive.concurrency", this, c -> c.concurrency).register(meterRegistry);
+        Gauge.builder("feed.adaptive.max-poll-records", this, c -> c.pollRecords).register(meterRegistry);
+        Gauge.builder("feed.adaptive.in-flight-pages", fanoutExecutor, FanoutExecutor::getMaxInFlight).register(meterRegistry);
+        Gauge.builder("feed.adaptive.paused", this, c -> c.paused ? 1 : 0).register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${feed.adaptive.interval-ms:10000}")
+    public void adjust() {
+        if (!enabled) {
+            return;
+        }
+        double latency = redisLatency.millis();
+        if (!paused && latency > pauseLatencyMs) {
+            logger.warn("Redis write latency {} ms above {} ms, pausing fan-out", String.format("%.1f", latency), pauseLatencyMs);
+            setPaused(true);
+            fanoutExecutor.setMaxInFlight(minInFlight);
+            return;
+        }
+        if (paused) {
+            latency = probeLatency();
+            if (latency >= resumeLatencyMs) {
+                return;
+            }
+            logger.info("Redis write latency back to {} ms, resuming fan-out", String.format("%.1f", latency));
+            setPaused(false);
+        }
+
+        long lag;
+        try {
+            lag = lagReader.lag("feed-ranker-group", "post-created");
+        } catch (Exception e) {
+            logger.warn("Could not read post-created consumer lag", e);
+            return;
+        }
+        lastLag = lag;
+        if (concurrency < 0 && !readContainerSettings()) {
+            return;
+        }
+        if (lag > scaleUpLag) {
+            fanoutExecutor.setMaxInFlight(Math.min(maxInFlight, fanoutExecutor.getMaxInFlight() * 2));
+            rescale(Math.min(maxConcurrency, concurrency * 2), Math.min(maxPollRecords, pollRecords * 2));
+        } else if (lag < scaleDownLag) {
+            fanoutExecutor.setMaxInFlight(Math.max(minInFlight, fanoutExecutor.getMaxInFlight() / 2));
+            rescale(Math.max(minConcurrency, concurrency / 2), Math.max(minPollRecords, pollRecords / 2));
+        }
+    }
+
+    private void rescale(int newConcurrency, int newPollRecords) {
+        if (newConcurrency == concurrency && newPollRecords == pollRecords) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (now - lastRestart < restartCooldownMs) {
+            return;
+        }
+        for (String id : SCALED_CONTAINERS) {
+            MessageListenerContainer container = registry.getListenerContainer(id);
+            if (!(container instanceof ConcurrentMessageListenerContainer<?, ?> concurrent) || !container.isRunning()) {
+                continue;
+            }
+            logger.info("Rescaling {} from concurrency {} / max.poll.records {} to {} / {}",
+                    id, concurrency, pollRecords, newConcurrency, newPollRecords);
+            concurrent.stop();
+            concurrent.setConcurrency(newConcurrency);
+            concurrent.getContainerProperties().getKafkaConsumerProperties()
+                    .setProperty(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(newPollRecords));
+            concurrent.start();
+        }
+        concurrency = newConcurrency;
+        pollRecords = newPollRecords;
+        lastRestart = now;
+    }
+
+    /** Times a PING to every feed shard and feeds the slowest into the latency average. */
+    private double probeLatency() {
+        long slowest = 0;
+        for (int shard = 0; shard < shards.size(); shard++) {
+            long start = System.nanoTime();
+            try {
+                shards.template(shard).execute((RedisCallback<String>) RedisConnection::ping);
+            } catch (Exception e) {
+                logger.warn("Redis shard {} did not answer PING, keeping fan-out paused", shard, e);
+                return Double.MAX_VALUE;
+            }
+            slowest = Math.max(slowest, System.nanoTime() - start);
+        }
+        redisLatency.record(slowest);
+        return redisLatency.millis();
+    }
+
+    private boolean readContainerSettings() {
+        for (String id : SCALED_CONTAINERS) {
+            if (registry.getListenerContainer(id) instanceof ConcurrentMessageListenerContainer<?, ?> concurrent) {
+                String configured = concurrent.getContainerProperties().getKafkaConsumerProperties()
+                        .getProperty(ConsumerConfig.MAX_POLL_RECORDS_CONFIG);
+                Object fromFactory = consumerFactory.getConfigurationProperties().get(ConsumerConfig.MAX_POLL_RECORDS_CONFIG);
+                concurrency = concurrent.getConcurrency();
+                pollRecords = configured != null ? Integer.parseInt(configured)
+                        : fromFactory != null ? Integer.parseInt(fromFactory.toString())
+                        : ConsumerConfig.DEFAULT_MAX_POLL_RECORDS;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void setPaused(boolean pause) {
+        for (String id : FANOUT_CONTAINERS) {
+            MessageListenerContainer container = registry.getListenerContainer(id);
+            if (container == null || !container.isRunning()) {
+                continue;
+            }
+            if (pause) {
+                container.pause();
+            } else {
+                container.resume();
+            }
+        }
+        paused = pause;
+    }
+
+    @ReadOperation
+    public Map<String, Object> settings() {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("enabled", enabled);
+        settings.put("concurrency", concurrency);
+        settings.put("maxPollRecords", pollRecords);
+        settings.put("inFlightPages", fanoutExecutor.getMaxInFlight());
+        settings.put("paused", paused);
+        settings.put("postCreatedLag", lastLag);
+        settings.put("redisLatencyMs", redisLatency.millis());
+        return settings;
+    }
+}
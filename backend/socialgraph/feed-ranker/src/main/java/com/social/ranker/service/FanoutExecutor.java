@@ -0,0 +1,118 @@
+package com.social.ranker.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs the page writes of one fan-out on virtual threads in {@code virtual} mode. Each
+ * {@link Writes} belongs to a single record being processed by a listener thread, and the thread
+ * waits for all of them before the record is acknowledged, so at most
+ * {@code feed.fanout.max-in-flight-pages} writes are in flight per partition and offsets are still
+ * committed in order.
+ */
+@Component
+public class FanoutExecutor {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final FeedWriteCombiner combiner;
+
+    @Value("${feed.fanout.executor:virtual}")
+    private String mode;
+
+    private volatile int maxInFlight;
+
+    public FanoutExecutor(FeedWriteCombiner combiner, @Value("${feed.fanout.max-in-flight-pages:8}") int maxInFlight) {
+        this.combiner = combiner;
+        this.maxInFlight = maxInFlight;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /** Takes effect for records that start after the call. */
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = Math.max(1, maxInFlight);
+    }
+
+    public Writes writes() {
+        // Combined writes are buffered per thread, so they have to stay on the listener thread.
+        boolean inline = !"virtual".equalsIgnoreCase(mode) || combiner.active();
+        return new Writes(inline ? null : new Semaphore(maxInFlight));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    public final class Writes {
+        private final Semaphore permits;
+        private final List<Future<?>> futures = new ArrayList<>();
+
+        private Writes(Semaphore permits) {
+            this.permits = permits;
+        }
+
+        /** Runs the task inline, or on a virtual thread once a permit is free. */
+        public void submit(Runnable task) {
+            if (permits == null) {
+                task.run();
+                return;
+            }
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a fan-out permit", e);
+            }
+            futures.add(executor.submit(() -> {
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            }));
+        }
+
+        /** Waits for every submitted write and rethrows the first failure. */
+        public void await() {
+            RuntimeException failure = null;
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause() instanceof RuntimeException re
+                                ? re : new IllegalStateException("Fan-out write failed", e.getCause());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for fan-out writes", e);
+                }
+            }
+            futures.clear();
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        /** Waits for in-flight writes after the caller already failed, keeping the caller's error. */
+        public void awaitQuietly(RuntimeException cause) {
+            try {
+                await();
+            } catch (RuntimeException e) {
+                cause.addSuppressed(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.social.ranker.service;
+
+/**
+ * Fan-out lanes by the cost of a post's fan-out. Each lane has its own topic, consumer group and
+ * listener concurrency, so a post to a few followers never queues behind a large push.
+ */
+public enum FanoutLane {
+    SMALL(Topics.SMALL),
+    MEDIUM(Topics.MEDIUM),
+    HUGE(Topics.HUGE);
+
+    /** Topic names as constants, for use in listener annotations. */
+    public static final class Topics {
+        public static final String SMALL = "post-fanout-small";
+        public static final String MEDIUM = "post-fanout-medium";
+        public static final String HUGE = "post-fanout-huge";
+
+        private Topics() {}
+    }
+
+    private final String topic;
+
+    FanoutLane(String topic) {
+        this.topic = topic;
+    }
+
+    public String topic() {
+        return topic;
+    }
+
+    public String tag() {
+        return name().toLowerCase();
+    }
+
+    public String groupId() {
+        return "feed-ranker-lane-" + tag();
+    }
+}
@@ -0,0 +1,61 @@
+package com.social.ranker.service;
+
+import com.social.ranker.kafka.PostEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/** One listener container per fan-out lane, each with its own consumer group and concurrency. */
+@Service
+@ConditionalOnProperty(name = "feed.ranker.listener-mode", havingValue = "lanes")
+public class FanoutLaneListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(FanoutLaneListener.class);
+    private final FeedRankerConsumer consumer;
+    private final Map<FanoutLane, Timer> delays = new EnumMap<>(FanoutLane.class);
+
+    public FanoutLaneListener(FeedRankerConsumer consumer, MeterRegistry meterRegistry) {
+        this.consumer = consumer;
+        for (FanoutLane lane : FanoutLane.values()) {
+            delays.put(lane, Timer.builder("feed.lane.delay")
+                    .description("Time from post creation to the start of its fan-out")
+                    .tag("lane", lane.tag())
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry));
+        }
+    }
+
+    @KafkaListener(id = "lane-small", topics = FanoutLane.Topics.SMALL, groupId = "feed-ranker-lane-small",
+            concurrency = "${feed.lanes.small.concurrency:6}")
+    public void onSmall(PostEvent evt, Acknowledgment ack) {
+        process(FanoutLane.SMALL, evt, ack);
+    }
+
+    @KafkaListener(id = "lane-medium", topics = FanoutLane.Topics.MEDIUM, groupId = "feed-ranker-lane-medium",
+            concurrency = "${feed.lanes.medium.concurrency:3}")
+    public void onMedium(PostEvent evt, Acknowledgment ack) {
+        process(FanoutLane.MEDIUM, evt, ack);
+    }
+
+    @KafkaListener(id = "lane-huge", topics = FanoutLane.Topics.HUGE, groupId = "feed-ranker-lane-huge",
+            concurrency = "${feed.lanes.huge.concurrency:1}")
+    public void onHuge(PostEvent evt, Acknowledgment ack) {
+        process(FanoutLane.HUGE, evt, ack);
+    }
+
+    private void process(FanoutLane lane, PostEvent evt, Acknowledgment ack) {
+        delays.get(lane).record(Math.max(0, System.currentTimeMillis() - evt.getTimestamp()), TimeUnit.MILLISECONDS);
+        logger.info("Processing post event: {} from {} lane", evt.getPostId(), lane.tag());
+        consumer.processPostEvent(evt);
+        ack.acknowledge();
+    }
+}
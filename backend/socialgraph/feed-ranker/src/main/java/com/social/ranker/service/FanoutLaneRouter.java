@@ -0,0 +1,94 @@
+package com.social.ranker.service;
+
+import com.social.ranker.client.UserServiceClient;
+import com.social.ranker.kafka.PostEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Lane mode entry point, enabled with {@code feed.ranker.listener-mode=lanes}: classifies every
+ * post-created event by the author's follower count and forwards it to that lane's topic. Lanes
+ * follow the work {@link FeedRankerConsumer} does for the post, so the bounds come from its
+ * thresholds:
+ * <ul>
+ *   <li>small: up to {@code feed.lanes.small-max-followers} (capped at {@code chunk-threshold}),
+ *   and authors above {@code pull-threshold}, whose post is a single timeline write;</li>
+ *   <li>medium: up to {@code feed.fanout.chunk-threshold}, pushed to every follower in place;</li>
+ *   <li>huge: up to {@code feed.fanout.pull-threshold}, split into {@code fanout-chunks} events.</li>
+ * </ul>
+ * Follower counts come from {@link FollowerCache}, which the consumer fills as it fans out.
+ */
+@Service
+@ConditionalOnProperty(name = "feed.ranker.listener-mode", havingValue = "lanes")
+public class FanoutLaneRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(FanoutLaneRouter.class);
+    private final UserServiceClient userService;
+    private final FollowerCache followerCache;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final Map<FanoutLane, Counter> routed = new EnumMap<>(FanoutLane.class);
+
+    @Value("${feed.lanes.small-max-followers:1000}")
+    private long smallMaxFollowers;
+
+    @Value("${feed.fanout.chunk-threshold:5000}")
+    private long chunkThreshold;
+
+    @Value("${feed.fanout.pull-threshold:10000}")
+    private long pullThreshold;
+
+    public FanoutLaneRouter(UserServiceClient userService, FollowerCache followerCache,
+                            KafkaTemplate<String, Object> kafkaTemplate, MeterRegistry meterRegistry) {
+        this.userService = userService;
+        this.followerCache = followerCache;
+        this.kafkaTemplate = kafkaTemplate;
+        for (FanoutLane lane : FanoutLane.values()) {
+            routed.put(lane, meterRegistry.counter("feed.lane.routed", "lane", lane.tag()));
+        }
+    }
+
+    @KafkaListener(id = "post-created-router", topics = "post-created", groupId = "feed-ranker-group")
+    public void route(PostEvent evt, Acknowledgment ack) {
+        if (evt == null || evt.getAuthorId() == null) {
+            logger.warn("Skipping malformed post event");
+            ack.acknowledge();
+            return;
+        }
+        FanoutLane lane = laneFor(evt.getAuthorId());
+        // Keyed by author so an author's posts stay ordered within the lane.
+        kafkaTemplate.send(lane.topic(), evt.getAuthorId(), evt).join();
+        routed.get(lane).increment();
+        logger.debug("Routed post {} of author {} to {} lane", evt.getPostId(), evt.getAuthorId(), lane.tag());
+        ack.acknowledge();
+    }
+
+    FanoutLane laneFor(String authorId) {
+        Long followers = followerCache.count(authorId);
+        if (followers == null) {
+            long fetchedAt = followerCache.version();
+            try {
+                followers = userService.followerCount(authorId);
+            } catch (Exception e) {
+                // Unknown size: keep it out of the small lane, which must stay fast.
+                logger.warn("Could not classify author {}, using medium lane", authorId);
+                return FanoutLane.MEDIUM;
+            }
+            followerCache.putCount(authorId, followers, fetchedAt);
+        }
+        if (followers > pullThreshold || followers <= Math.min(smallMaxFollowers, chunkThreshold)) {
+            return FanoutLane.SMALL;
+        }
+        return followers <= chunkThreshold ? FanoutLane.MEDIUM : FanoutLane.HUGE;
+    }
+}
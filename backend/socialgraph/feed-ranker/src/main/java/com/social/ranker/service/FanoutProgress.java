@@ -0,0 +1,126 @@
+package com.social.ranker.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Fan-out checkpoints per post, kept in a Redis set {@code fanout:progress:{postId}} so a
+ * retried or redelivered event skips the follower pages it already wrote, on whichever ranker
+ * instance it lands. Members are page fingerprints plus {@link #DONE} once the whole fan-out
+ * finished and {@link #CHUNKED} once its chunk events were queued.
+ */
+@Component
+public class FanoutProgress {
+
+    static final String DONE = "done";
+    static final String CHUNKED = "chunked";
+
+    private final StringRedisTemplate redis;
+    private final FeedWriteCombiner combiner;
+    private final Counter skippedPosts;
+    private final Counter skippedPages;
+
+    @Value("${feed.fanout.dedupe.enabled:true}")
+    private boolean enabled;
+
+    @Value("${feed.fanout.dedupe.ttl:1h}")
+    private Duration ttl;
+
+    public FanoutProgress(StringRedisTemplate redis, FeedWriteCombiner combiner, MeterRegistry meterRegistry) {
+        this.redis = redis;
+        this.combiner = combiner;
+        this.skippedPosts = meterRegistry.counter("feed.fanout.dedupe.skipped", "unit", "post");
+        this.skippedPages = meterRegistry.counter("feed.fanout.dedupe.skipped", "unit", "page");
+    }
+
+    /** Checkpoints of each post, in order, fetched in one pipelined round trip. */
+    @SuppressWarnings("unchecked")
+    public List<Set<String>> load(List<Long> postIds) {
+        List<Set<String>> result = new ArrayList<>(postIds.size());
+        if (!enabled) {
+            postIds.forEach(id -> result.add(new HashSet<>()));
+            return result;
+        }
+        List<Object> replies = redis.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (Long postId : postIds) {
+                conn.sMembers(key(postId));
+            }
+            return null;
+        });
+        for (Object reply : replies) {
+            result.add(reply == null ? new HashSet<>() : new HashSet<>((Set<String>) reply));
+        }
+        return result;
+    }
+
+    /** Records a checkpoint; inside a write-combining scope only after the buffered writes are flushed. */
+    public void record(Collection<Long> postIds, String member) {
+        if (!enabled || postIds.isEmpty()) {
+            return;
+        }
+        if (!combiner.defer(() -> write(postIds, member))) {
+            write(postIds, member);
+        }
+    }
+
+    private void write(Collection<Long> postIds, String member) {
+        long ttlSeconds = ttl.toSeconds();
+        redis.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (Long postId : postIds) {
+                conn.sAdd(key(postId), member);
+                conn.expire(key(postId), ttlSeconds);
+            }
+            return null;
+        });
+    }
+
+    boolean skipPost(Set<String> checkpoints) {
+        if (checkpoints.contains(DONE) || checkpoints.contains(CHUNKED)) {
+            skippedPosts.increment();
+            return true;
+        }
+        return false;
+    }
+
+    boolean skipPage(Set<String> checkpoints, String page) {
+        if (checkpoints.contains(page)) {
+            skippedPages.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Fingerprint of a follower page. Keyset pages are cut on node id, so a replay sees the same
+     * pages unless the follower set changed, in which case the page is simply written again.
+     */
+    static String pageMember(List<String> followers) {
+        long h = 0xcbf29ce484222325L;
+        for (String follower : followers) {
+            for (byte b : follower.getBytes(StandardCharsets.UTF_8)) {
+                h = (h ^ b) * 0x100000001b3L;
+            }
+            h = (h ^ '\n') * 0x100000001b3L;
+        }
+        return "p:" + followers.size() + ":" + Long.toHexString(h);
+    }
+
+    static String key(Long postId) {
+        return "fanout:progress:" + postId;
+    }
+}
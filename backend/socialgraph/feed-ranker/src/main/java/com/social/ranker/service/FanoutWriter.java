@@ -0,0 +1,286 @@
+package com.social.ranker.service;
+
+import com.social.ranker.store.FeedKeys;
+import com.social.ranker.store.FeedShards;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes a post into follower feeds in fixed-size chunks. In {@code lua} mode each chunk is a
+ * single EVALSHA of {@code scripts/fanout.lua}, which adds and trims atomically on the Redis
+ * side; in {@code pipeline} mode (and whenever the script cache has been flushed) each chunk is
+ * sent as one pipelined command stream. A chunk that fails as a whole is replayed follower by
+ * follower so one bad key never drops the rest of the chunk. Feed keys are grouped by their
+ * {@link FeedShards} node first, so every node gets its own chunks. When feeds are trimmed is up
+ * to {@link FeedTrimPolicy}.
+ */
+@Component
+public class FanoutWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(FanoutWriter.class);
+    static final String PULL_AUTHORS_KEY = "pull-authors";
+
+    private final StringRedisTemplate redis;
+    private final FeedWriteCombiner combiner;
+    private final RedisLatency redisLatency;
+    private final FeedTrimPolicy trimPolicy;
+    private final FeedKeys feedKeys;
+    private final FeedShards shards;
+    private final Timer chunkTimer;
+    private final String fanoutScript;
+    // The SHA is the same on every node; null until the script is loaded on all of them.
+    private volatile String fanoutScriptSha;
+
+    @Value("${feed.fanout.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${feed.fanout.mode:lua}")
+    private String mode;
+
+    @Value("${feed.timeline.max-size:100}")
+    private int maxTimelineSize;
+
+    public FanoutWriter(StringRedisTemplate redis, FeedWriteCombiner combiner, RedisLatency redisLatency,
+                        FeedTrimPolicy trimPolicy, FeedKeys feedKeys, FeedShards shards,
+                        MeterRegistry meterRegistry) {
+        this.redis = redis;
+        this.combiner = combiner;
+        this.redisLatency = redisLatency;
+        this.trimPolicy = trimPolicy;
+        this.feedKeys = feedKeys;
+        this.shards = shards;
+        this.chunkTimer = Timer.builder("feed.fanout.chunk")
+                .description("Latency of one fan-out chunk")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        try {
+            this.fanoutScript = StreamUtils.copyToString(
+                    new ClassPathResource("scripts/fanout.lua").getInputStream(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read fan-out script", e);
+        }
+    }
+
+    @PostConstruct
+    void preloadScript() {
+        if (!"lua".equalsIgnoreCase(mode)) {
+            return;
+        }
+        try {
+            loadScript();
+        } catch (Exception e) {
+            logger.warn("Could not preload fan-out script, will retry on first fan-out", e);
+        }
+    }
+
+    /**
+     * Feeds only stay in Redis' compact listpack encoding while they have at most
+     * {@code zset-max-listpack-entries} members; a lower limit than the trim soft limit turns every
+     * full feed into a skiplist several times its size.
+     */
+    @PostConstruct
+    void checkListpackLimit() {
+        for (int shard = 0; shard < shards.size(); shard++) {
+            try {
+                Properties config = shards.template(shard).execute((RedisCallback<Properties>) connection ->
+                        connection.serverCommands().getConfig("zset-max-listpack-entries"));
+                String limit = config == null ? null : config.getProperty("zset-max-listpack-entries");
+                if (limit != null && Integer.parseInt(limit) < trimPolicy.softLimit()) {
+                    logger.warn("Redis {} has zset-max-listpack-entries {} but feeds grow to {} entries; "
+                            + "full feeds will use the skiplist encoding", shards.node(shard), limit, trimPolicy.softLimit());
+                }
+            } catch (Exception e) {
+                logger.debug("Could not read zset-max-listpack-entries of Redis {}", shards.node(shard), e);
+            }
+        }
+    }
+
+    /** {@code scores[i]} is the score of the post in the feed of {@code followers.get(i)}. */
+    public int write(String postId, List<String> followers, double[] scores) {
+        if (combiner.add(postId, followers, scores)) {
+            return followers.size();
+        }
+        String[] keys = new String[followers.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = feedKeys.feedKey(followers.get(i));
+        }
+        if (shards.size() == 1) {
+            return writeShard(0, postId, Arrays.asList(keys), scores);
+        }
+        int written = 0;
+        int[][] byShard = shards.partition(keys);
+        for (int shard = 0; shard < byShard.length; shard++) {
+            int[] positions = byShard[shard];
+            if (positions.length == 0) {
+                continue;
+            }
+            List<String> shardKeys = new ArrayList<>(positions.length);
+            double[] shardScores = new double[positions.length];
+            for (int i = 0; i < positions.length; i++) {
+                shardKeys.add(keys[positions[i]]);
+                shardScores[i] = scores[positions[i]];
+            }
+            written += writeShard(shard, postId, shardKeys, shardScores);
+        }
+        return written;
+    }
+
+    private int writeShard(int shard, String postId, List<String> keys, double[] scores) {
+        int written = 0;
+        for (int from = 0; from < keys.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, keys.size());
+            written += writeChunk(shard, postId, keys.subList(from, to), scores, from);
+        }
+        return written;
+    }
+
+    /**
+     * Records a post of a pull-mode author in the author's own timeline instead of pushing it
+     * to every follower; feed-api merges these timelines in at read time.
+     */
+    public void writeTimeline(String authorId, String postId, double score) {
+        String key = timelineKey(authorId);
+        redis.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            conn.zAdd(key, score, postId);
+            conn.zRemRange(key, 0, -(maxTimelineSize + 1));
+            conn.sAdd(PULL_AUTHORS_KEY, authorId);
+            return null;
+        });
+    }
+
+    private int writeChunk(int shard, String postId, List<String> chunk, double[] scores, int offset) {
+        StringRedisTemplate feeds = shards.template(shard);
+        long start = System.nanoTime();
+        // Commands the sample covers; stays 0 when the chunk falls back to writeEach, which
+        // samples each follower's write itself.
+        int commands = 0;
+        try {
+            if ("lua".equalsIgnoreCase(mode) && writeChunkScripted(feeds, postId, chunk, scores, offset)) {
+                commands = chunk.size() * (trimPolicy.trimOnInsert() ? 2 : 1);
+                return chunk.size();
+            }
+            List<Object> replies = feeds.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                for (int i = 0; i < chunk.size(); i++) {
+                    String key = chunk.get(i);
+                    conn.zAdd(key, scores[offset + i], postId);
+                    if (trimPolicy.trimOnInsert()) {
+                        conn.zRemRange(key, 0, -(trimPolicy.maxFeedSize() + 1));
+                    }
+                }
+                return null;
+            });
+            commands = replies.size();
+            return chunk.size();
+        } catch (Exception e) {
+            logger.warn("Pipelined chunk of {} feeds failed for post {}, retrying per follower", chunk.size(), postId, e);
+            return writeEach(feeds, postId, chunk, scores, offset);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            chunkTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            if (commands > 0) {
+                redisLatency.record(elapsed, commands);
+            }
+            logger.debug("Fan-out chunk of {} feeds for post {} took {} ms",
+                    chunk.size(), postId, TimeUnit.NANOSECONDS.toMillis(elapsed));
+        }
+    }
+
+    /**
+     * Returns false when the script is not in the Redis script cache, so the caller can fall
+     * back to the plain command path for this chunk.
+     */
+    private boolean writeChunkScripted(StringRedisTemplate feeds, String postId, List<String> chunk,
+                                       double[] scores, int offset) {
+        String sha = fanoutScriptSha;
+        if (sha == null) {
+            sha = loadScript();
+        }
+        int n = chunk.size();
+        String[] keysAndArgs = new String[2 * n + 3];
+        keysAndArgs[n] = postId;
+        keysAndArgs[n + 1] = String.valueOf(trimPolicy.maxFeedSize());
+        keysAndArgs[n + 2] = String.valueOf(trimPolicy.softLimit());
+        for (int i = 0; i < n; i++) {
+            keysAndArgs[i] = chunk.get(i);
+            keysAndArgs[n + 3 + i] = String.valueOf(scores[offset + i]);
+        }
+
+        String scriptSha = sha;
+        try {
+            feeds.execute((RedisCallback<Object>) connection -> ((StringRedisConnection) connection)
+                    .evalSha(scriptSha, ReturnType.INTEGER, chunk.size(), keysAndArgs));
+            return true;
+        } catch (Exception e) {
+            if (!isNoScript(e)) {
+                throw e;
+            }
+            logger.warn("Fan-out script missing from Redis script cache, falling back to pipelined writes");
+            fanoutScriptSha = null;
+            return false;
+        }
+    }
+
+    private String loadScript() {
+        String sha = null;
+        for (int shard = 0; shard < shards.size(); shard++) {
+            sha = shards.template(shard).execute((RedisCallback<String>) connection ->
+                    ((StringRedisConnection) connection).scriptLoad(fanoutScript));
+        }
+        fanoutScriptSha = sha;
+        logger.info("Loaded fan-out script {}", sha);
+        return sha;
+    }
+
+    private static boolean isNoScript(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t.getMessage() != null && t.getMessage().contains("NOSCRIPT")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int writeEach(StringRedisTemplate feeds, String postId, List<String> chunk, double[] scores, int offset) {
+        int written = 0;
+        for (int i = 0; i < chunk.size(); i++) {
+            String key = chunk.get(i);
+            long start = System.nanoTime();
+            try {
+                feeds.opsForZSet().add(key, postId, scores[offset + i]);
+                if (trimPolicy.trimOnInsert()) {
+                    feeds.opsForZSet().removeRange(key, 0, -(trimPolicy.maxFeedSize() + 1));
+                }
+                redisLatency.record(System.nanoTime() - start, trimPolicy.trimOnInsert() ? 2 : 1);
+                written++;
+            } catch (Exception e) {
+                logger.error("Error adding post {} to feed {}", postId, key, e);
+            }
+        }
+        return written;
+    }
+
+    static String timelineKey(String authorId) {
+        return "timeline:" + authorId;
+    }
+}
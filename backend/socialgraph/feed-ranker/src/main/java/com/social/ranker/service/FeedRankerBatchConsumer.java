@@ -0,0 +1,99 @@
+package com.social.ranker.service;
+
+import com.social.ranker.kafka.PostEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Batch variant of the post-created listener, enabled with {@code feed.ranker.listener-mode=batch}.
+ * A whole poll is grouped by author so followers are fetched once per author per batch, and the
+ * batch is acknowledged once. Feed writes of the whole batch go through the write combiner, so
+ * a follower reached by several authors in the batch gets one ZADD.
+ */
+@Service
+@ConditionalOnProperty(name = "feed.ranker.listener-mode", havingValue = "batch")
+public class FeedRankerBatchConsumer {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeedRankerBatchConsumer.class);
+    private final FeedRankerConsumer consumer;
+    private final FeedWriteCombiner writeCombiner;
+
+    public FeedRankerBatchConsumer(FeedRankerConsumer consumer, FeedWriteCombiner writeCombiner) {
+        this.consumer = consumer;
+        this.writeCombiner = writeCombiner;
+    }
+
+    @KafkaListener(id = "post-created-batch", topics = "post-created", groupId = "feed-ranker-group",
+            containerFactory = "batchKafkaListenerContainerFactory")
+    public void onBatch(List<PostEvent> events, Acknowledgment ack) {
+        Map<String, List<Integer>> byAuthor = new LinkedHashMap<>();
+        for (int i = 0; i < events.size(); i++) {
+            PostEvent evt = events.get(i);
+            if (evt == null || evt.getAuthorId() == null) {
+                logger.warn("Skipping malformed post event at batch index {}", i);
+                continue;
+            }
+            byAuthor.computeIfAbsent(evt.getAuthorId(), k -> new ArrayList<>()).add(i);
+        }
+        logger.info("Processing batch of {} post events from {} authors", events.size(), byAuthor.size());
+
+        int firstFailed = -1;
+        Exception failure = null;
+        // Lowest batch index of an author whose writes may still sit in the combiner's buffer;
+        // a failed flush loses them too, so they must be redelivered with the failed author.
+        int firstUnflushed = -1;
+        writeCombiner.begin();
+        try {
+            for (Map.Entry<String, List<Integer>> entry : byAuthor.entrySet()) {
+                List<PostEvent> authorEvents = entry.getValue().stream().map(events::get).toList();
+                int index = entry.getValue().get(0);
+                try {
+                    consumer.processAuthorEvents(entry.getKey(), authorEvents);
+                    if (!writeCombiner.pending()) {
+                        firstUnflushed = -1;
+                    } else if (firstUnflushed < 0 || index < firstUnflushed) {
+                        firstUnflushed = index;
+                    }
+                } catch (Exception e) {
+                    logger.error("Error processing {} post events of author {}", authorEvents.size(), entry.getKey(), e);
+                    int failed = firstUnflushed < 0 ? index : Math.min(index, firstUnflushed);
+                    if (firstFailed < 0 || failed < firstFailed) {
+                        firstFailed = failed;
+                        failure = e;
+                    }
+                    // Whatever was buffered is dropped along with a failed flush; re-check from here on.
+                    firstUnflushed = writeCombiner.pending() ? firstUnflushed : -1;
+                }
+            }
+            // Buffered writes must be in Redis before anything is acknowledged.
+            try {
+                writeCombiner.flush();
+            } catch (Exception e) {
+                logger.error("Error flushing combined feed writes of the batch", e);
+                if (firstUnflushed >= 0 && (firstFailed < 0 || firstUnflushed < firstFailed)) {
+                    firstFailed = firstUnflushed;
+                    failure = e;
+                }
+            }
+        } finally {
+            writeCombiner.end();
+        }
+
+        if (failure != null) {
+            // Everything before the first failed record is done; the error handler commits up to it
+            // and redelivers the rest. Fan-out writes are idempotent, so replaying later authors is safe.
+            throw new BatchListenerFailedException("Failed to process post event batch", failure, firstFailed);
+        }
+        ack.acknowledge();
+    }
+}
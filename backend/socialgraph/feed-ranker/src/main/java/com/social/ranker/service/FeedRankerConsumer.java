@@ -1,40 +1,94 @@
 package com.social.ranker.service;
 
+import com.social.ranker.affinity.AffinityEngine;
+import com.social.ranker.client.FollowerVisitor;
+import com.social.ranker.client.UserServiceClient;
+import com.social.ranker.kafka.FanoutChunkEvent;
 import com.social.ranker.kafka.PostEvent;
+import com.social.ranker.store.FeedStore;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.retrytopic.DltStrategy;
 import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.web.client.RestClientException;
 // FIX: Added the correct import from spring-retry
 import org.springframework.retry.annotation.Backoff;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class FeedRankerConsumer {
 
     private static final Logger logger = LoggerFactory.getLogger(FeedRankerConsumer.class);
-    private final StringRedisTemplate redis;
-    private final RestTemplate rest;
+    static final String FANOUT_CHUNKS_TOPIC = "fanout-chunks";
+    // user-service's FollowService.MAX_PAGE_SIZE; it rejects larger chunks.
+    static final int MAX_CHUNK_FOLLOWERS = 5000;
+
+    private final UserServiceClient userService;
+    private final FanoutWriter fanoutWriter;
+    private final FeedStore feedStore;
+    private final FollowerCache followerCache;
+    private final AffinityEngine affinityEngine;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final FanoutProgress fanoutProgress;
+    private final FanoutExecutor fanoutExecutor;
+    private final PostSnapshots postSnapshots;
 
     @Autowired
     @Lazy
     private FeedRankerConsumer self;
 
-    public FeedRankerConsumer(StringRedisTemplate redis, RestTemplate rest) {
-        this.redis = redis;
-        this.rest = rest;
+    @Value("${feed.fanout.pull-threshold:10000}")
+    private int pullThreshold;
+
+    @Value("${feed.fanout.follower-page-size:1000}")
+    private int followerPageSize;
+
+    @Value("${feed.fanout.chunk-threshold:5000}")
+    private int chunkThreshold;
+
+    @Value("${feed.fanout.chunk-followers:5000}")
+    private int chunkFollowers;
+
+    @Value("${feed.scoring.mode:stored}")
+    private String scoringMode;
+
+    public FeedRankerConsumer(UserServiceClient userService, FanoutWriter fanoutWriter, FeedStore feedStore,
+                              FollowerCache followerCache, AffinityEngine affinityEngine,
+                              KafkaTemplate<String, Object> kafkaTemplate, FanoutProgress fanoutProgress,
+                              FanoutExecutor fanoutExecutor, PostSnapshots postSnapshots) {
+        this.userService = userService;
+        this.fanoutWriter = fanoutWriter;
+        this.feedStore = feedStore;
+        this.followerCache = followerCache;
+        this.affinityEngine = affinityEngine;
+        this.kafkaTemplate = kafkaTemplate;
+        this.fanoutProgress = fanoutProgress;
+        this.fanoutExecutor = fanoutExecutor;
+        this.postSnapshots = postSnapshots;
+    }
+
+    @PostConstruct
+    void checkChunkFollowers() {
+        if (chunkFollowers < 1 || chunkFollowers > MAX_CHUNK_FOLLOWERS) {
+            throw new IllegalStateException("feed.fanout.chunk-followers must be between 1 and "
+                    + MAX_CHUNK_FOLLOWERS + ", got " + chunkFollowers);
+        }
     }
 
     // FIX: Used the correct @Backoff annotation (imported from spring-retry)
@@ -44,7 +98,8 @@ public class FeedRankerConsumer {
             dltStrategy = DltStrategy.FAIL_ON_ERROR,
             dltTopicSuffix = "-dlt"
     )
-    @KafkaListener(topics = "post-created", groupId = "feed-ranker-group")
+    @KafkaListener(id = "post-created", topics = "post-created", groupId = "feed-ranker-group",
+            autoStartup = "#{'${feed.ranker.listener-mode:single}' == 'single'}")
     public void onMessage(PostEvent evt, @Header(KafkaHeaders.RECEIVED_TOPIC) String topic) {
         try {
             logger.info("Processing post event: {} from topic: {}", evt.getPostId(), topic);
@@ -58,44 +113,251 @@ public class FeedRankerConsumer {
     @CircuitBreaker(name = "user-service", fallbackMethod = "fallbackGetFollowers")
     @Retry(name = "user-service")
     public void processPostEvent(PostEvent evt) {
-        List<?> followers = fetchFollowers(evt.getAuthorId());
+        fanOut(evt.getAuthorId(), List.of(evt));
+    }
 
-        if (followers == null || followers.isEmpty()) {
-            logger.warn("No followers found for author: {}", evt.getAuthorId());
-            return;
-        }
+    /**
+     * Fans out several posts of the same author with a single follower fetch. Used by the
+     * batch listener, which groups each poll by author.
+     */
+    @CircuitBreaker(name = "user-service", fallbackMethod = "fallbackAuthorEvents")
+    @Retry(name = "user-service")
+    public void processAuthorEvents(String authorId, List<PostEvent> events) {
+        fanOut(authorId, events);
+    }
+
+    /** Writes one follower range of a chunked fan-out, see {@link #publishChunks}. */
+    @CircuitBreaker(name = "user-service", fallbackMethod = "fallbackChunk")
+    @Retry(name = "user-service")
+    public void processChunk(FanoutChunkEvent chunk) {
+        List<PostEvent> events = List.of(chunk.getPost());
+        Map<Long, Set<String>> checkpoints = loadCheckpoints(events);
+        FanoutExecutor.Writes writes = fanoutExecutor.writes();
+        runWrites(writes, () -> userService.forEachFollower(chunk.getPost().getAuthorId(), chunk.getAfter(),
+                chunk.getLimit(), followerPageSize, new FollowerVisitor() {
+                    @Override
+                    public boolean onTotal(long total) {
+                        return true;
+                    }
 
-        double base = computeRecencyScore(evt.getTimestamp());
-        for (Object obj : followers) {
-            try {
-                String follower = String.valueOf(obj);
-                double affinity = 0.5;
-                double score = 0.6 * affinity + 0.4 * base;
-                String key = "feed:" + follower;
+                    @Override
+                    public void onFollowers(List<String> followers) {
+                        List<String> page = List.copyOf(followers);
+                        writes.submit(() -> writePage(events, page, checkpoints));
+                    }
+                }));
+    }
+
+    public void fallbackGetFollowers(PostEvent evt, Exception e) {
+        logger.warn("Circuit breaker fallback for author: {}", evt.getAuthorId());
+    }
+
+    public void fallbackAuthorEvents(String authorId, List<PostEvent> events, Exception e) {
+        // Rethrow so the batch listener stops acknowledging at this author and the rest is redelivered.
+        logger.warn("Circuit breaker fallback for author: {} ({} posts)", authorId, events.size());
+        throw new IllegalStateException("Fan-out of author " + authorId + " failed", e);
+    }
+
+    public void fallbackChunk(FanoutChunkEvent chunk, Exception e) {
+        // Rethrow so the chunk is not acknowledged and gets redelivered once user-service is back.
+        logger.warn("Circuit breaker fallback for chunk {}/{} of post {}",
+                chunk.getChunkIndex() + 1, chunk.getChunkCount(), chunk.getPost().getPostId());
+        throw new IllegalStateException("Fan-out chunk failed", e);
+    }
 
-                redis.opsForZSet().add(key, String.valueOf(evt.getPostId()), score);
-                redis.opsForZSet().removeRange(key, 0, -101);
+    private void fanOut(String authorId, List<PostEvent> allEvents) {
+        // Snapshots go first so feed-api can hydrate the posts as soon as they reach a feed.
+        postSnapshots.created(allEvents);
+        // Retries and redeliveries replay whole events; skip what an earlier attempt finished.
+        Map<Long, Set<String>> checkpoints = loadCheckpoints(allEvents);
+        List<PostEvent> events = allEvents.stream()
+                .filter(evt -> !fanoutProgress.skipPost(checkpoints.get(evt.getPostId())))
+                .toList();
+        if (events.isEmpty()) {
+            logger.info("Posts of author {} already fanned out, skipping", authorId);
+            return;
+        }
 
-                logger.debug("Added post {} to feed of user {}", evt.getPostId(), follower);
-            } catch (Exception e) {
-                logger.error("Error adding post to follower feed", e);
+        List<String> cached = followerCache.get(authorId);
+        if (cached != null) {
+            if (cached.isEmpty()) {
+                logger.warn("No followers found for author: {}", authorId);
+            } else if (cached.size() > pullThreshold) {
+                writeTimelines(events, cached.size());
+            } else if (cached.size() > chunkThreshold) {
+                publishChunks(authorId, events, cached.size());
+            } else {
+                // Same page boundaries as a fetched walk, so checkpoints match either way.
+                FanoutExecutor.Writes writes = fanoutExecutor.writes();
+                runWrites(writes, () -> {
+                    for (int from = 0; from < cached.size(); from += followerPageSize) {
+                        List<String> page = cached.subList(from, Math.min(from + followerPageSize, cached.size()));
+                        writes.submit(() -> writePage(events, page, checkpoints));
+                    }
+                });
+                markDone(events);
             }
+            return;
+        }
+
+        logger.info("Fetching followers for author: {}", authorId);
+        FanoutExecutor.Writes writes = fanoutExecutor.writes();
+        FanoutVisitor visitor = new FanoutVisitor(authorId, events, checkpoints, writes, followerCache.version());
+        runWrites(writes, () -> userService.forEachFollower(authorId, followerPageSize, visitor));
+        if (visitor.pushed) {
+            markDone(events);
+        }
+        if (visitor.collected != null) {
+            followerCache.put(authorId, visitor.collected, visitor.cacheVersion);
         }
     }
 
-    private List<?> fetchFollowers(String authorId) {
-        String followersUrl = "http://localhost:8080/users/" + authorId + "/followers";
+    /**
+     * Runs the follower walk, then waits for the page writes it submitted. When the walk fails,
+     * writes already in flight are still waited for so a retry never overlaps them.
+     */
+    private void runWrites(FanoutExecutor.Writes writes, Runnable walk) {
         try {
-            logger.info("Fetching followers for author: {}", authorId);
-            return rest.getForObject(followersUrl, List.class);
-        } catch (RestClientException e) {
-            logger.error("Failed to fetch followers for author: {}", authorId, e);
+            walk.run();
+        } catch (RuntimeException e) {
+            writes.awaitQuietly(e);
             throw e;
         }
+        writes.await();
     }
 
-    public void fallbackGetFollowers(PostEvent evt, Exception e) {
-        logger.warn("Circuit breaker fallback for author: {}", evt.getAuthorId());
+    /**
+     * Fans out followers page by page as they arrive, overlapping page writes with the fetch of
+     * the next page; the whole list is only kept when the follower cache will take it.
+     */
+    private class FanoutVisitor implements FollowerVisitor {
+        private final String authorId;
+        private final List<PostEvent> events;
+        private final Map<Long, Set<String>> checkpoints;
+        private final FanoutExecutor.Writes writes;
+        private final long cacheVersion;
+        private List<String> collected;
+        private boolean pushed;
+
+        FanoutVisitor(String authorId, List<PostEvent> events, Map<Long, Set<String>> checkpoints,
+                      FanoutExecutor.Writes writes, long cacheVersion) {
+            this.authorId = authorId;
+            this.events = events;
+            this.checkpoints = checkpoints;
+            this.writes = writes;
+            this.cacheVersion = cacheVersion;
+        }
+
+        @Override
+        public boolean onTotal(long total) {
+            if (total == 0) {
+                followerCache.put(authorId, List.of(), cacheVersion);
+                logger.warn("No followers found for author: {}", authorId);
+                return false;
+            }
+            // Lets the lane router classify the author's next posts without another lookup.
+            followerCache.putCount(authorId, total, cacheVersion);
+            if (total > pullThreshold) {
+                writeTimelines(events, total);
+                return false;
+            }
+            if (total > chunkThreshold) {
+                publishChunks(authorId, events, total);
+                return false;
+            }
+            collected = followerCache.accepts(total) ? new ArrayList<>((int) total) : null;
+            pushed = true;
+            return true;
+        }
+
+        @Override
+        public void onFollowers(List<String> followers) {
+            // Pages are only valid for the duration of the call.
+            List<String> page = List.copyOf(followers);
+            writes.submit(() -> writePage(events, page, checkpoints));
+            if (collected != null) {
+                collected.addAll(page);
+            }
+        }
+    }
+
+    /**
+     * Splits a large fan-out into follower ranges published to {@code fanout-chunks}, so every
+     * ranker instance takes a share instead of the one thread that owns the post's partition.
+     * Chunks are keyed by post and index to spread them across partitions; replaying a chunk
+     * only re-adds the same members, so redelivery is harmless.
+     */
+    private void publishChunks(String authorId, List<PostEvent> events, long followerCount) {
+        List<Long> starts = userService.followerChunkStarts(authorId, chunkFollowers);
+        List<CompletableFuture<?>> sends = new ArrayList<>(starts.size() * events.size());
+        for (PostEvent evt : events) {
+            for (int i = 0; i < starts.size(); i++) {
+                FanoutChunkEvent chunk = new FanoutChunkEvent(evt, starts.get(i), chunkFollowers, i, starts.size());
+                sends.add(kafkaTemplate.send(FANOUT_CHUNKS_TOPIC, evt.getPostId() + ":" + i, chunk));
+            }
+            logger.info("Author {} has {} followers, split post {} into {} fan-out chunks",
+                    authorId, followerCount, evt.getPostId(), starts.size());
+        }
+        // The post event is only acknowledged once every chunk is durably queued.
+        CompletableFuture.allOf(sends.toArray(new CompletableFuture[0])).join();
+        fanoutProgress.record(events.stream().map(PostEvent::getPostId).toList(), FanoutProgress.CHUNKED);
+    }
+
+    private void writeTimelines(List<PostEvent> events, long followerCount) {
+        // Timelines are shared by every follower, so only the affinity prior applies.
+        for (PostEvent evt : events) {
+            double score = score(affinityEngine.prior(), evt.getTimestamp(), computeRecencyScore(evt.getTimestamp()));
+            fanoutWriter.writeTimeline(evt.getAuthorId(), String.valueOf(evt.getPostId()), score);
+            logger.info("Author {} has {} followers, stored post {} in author timeline for pull",
+                    evt.getAuthorId(), followerCount, evt.getPostId());
+        }
+    }
+
+    private Map<Long, Set<String>> loadCheckpoints(List<PostEvent> events) {
+        List<Long> postIds = events.stream().map(PostEvent::getPostId).toList();
+        List<Set<String>> loaded = fanoutProgress.load(postIds);
+        Map<Long, Set<String>> checkpoints = new LinkedHashMap<>();
+        for (int i = 0; i < postIds.size(); i++) {
+            checkpoints.put(postIds.get(i), loaded.get(i));
+        }
+        return checkpoints;
+    }
+
+    private void markDone(List<PostEvent> events) {
+        fanoutProgress.record(events.stream().map(PostEvent::getPostId).toList(), FanoutProgress.DONE);
+    }
+
+    private void writePage(List<PostEvent> allEvents, List<String> followers, Map<Long, Set<String>> checkpoints) {
+        String page = FanoutProgress.pageMember(followers);
+        List<PostEvent> events = allEvents.stream()
+                .filter(evt -> !fanoutProgress.skipPage(checkpoints.get(evt.getPostId()), page))
+                .toList();
+        if (events.isEmpty()) {
+            return;
+        }
+        double[] affinities = new double[followers.size()];
+        affinityEngine.affinities(events.get(0).getAuthorId(), followers, affinities);
+        double[] scores = new double[followers.size()];
+        for (PostEvent evt : events) {
+            double recency = computeRecencyScore(evt.getTimestamp());
+            for (int i = 0; i < scores.length; i++) {
+                scores[i] = score(affinities[i], evt.getTimestamp(), recency);
+            }
+            int written = feedStore.add(String.valueOf(evt.getPostId()), followers, scores);
+            logger.debug("Added post {} to {} of {} follower feeds", evt.getPostId(), written, followers.size());
+        }
+        fanoutProgress.record(events.stream().map(PostEvent::getPostId).toList(), page);
+    }
+
+    /**
+     * In {@code read-time} mode only the affinity is stored, packed with the post timestamp,
+     * and feed-api applies recency decay when the feed is read.
+     */
+    private double score(double affinity, long timestamp, double recency) {
+        if ("read-time".equalsIgnoreCase(scoringMode)) {
+            return FeedScore.pack(timestamp, affinity);
+        }
+        return 0.6 * affinity + 0.4 * recency;
     }
 
     private double computeRecencyScore(long ts) {
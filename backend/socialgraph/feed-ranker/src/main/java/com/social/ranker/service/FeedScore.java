@@ -0,0 +1,32 @@
+package com.social.ranker.service;
+
+/**
+ * Packs a post's timestamp and its time-independent base score into one ZSET score so that
+ * feed-api can apply recency decay at read time. The packed value is
+ * {@code epochSeconds * 1000 + round(base * 999)}, which keeps feeds ordered by time and is
+ * always far above the legacy stored scores (which are in [0, 1]); readers tell the two apart
+ * by magnitude, so both kinds can coexist in one feed during a switch-over.
+ */
+public final class FeedScore {
+
+    public static final double PACKED_MIN = 1e9;
+
+    private FeedScore() { }
+
+    public static double pack(long timestampMillis, double base) {
+        double clamped = Math.max(0.0, Math.min(1.0, base));
+        return Math.floorDiv(timestampMillis, 1000L) * 1000.0 + Math.round(clamped * 999);
+    }
+
+    public static boolean isPacked(double score) {
+        return score >= PACKED_MIN;
+    }
+
+    public static long timestampMillis(double packed) {
+        return (long) (packed / 1000) * 1000L;
+    }
+
+    public static double base(double packed) {
+        return (packed - Math.floor(packed / 1000) * 1000) / 999.0;
+    }
+}
@@ -0,0 +1,47 @@
+package com.social.ranker.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * How follower feeds are held to {@code feed.max-size}. In {@code always} mode every insert
+ * trims. In {@code lazy} mode a feed may grow to {@code feed.trim.soft-limit}: the Lua path trims
+ * only once the soft limit is crossed, the pipelined paths trim with probability
+ * {@code feed.trim.probability}, and {@link FeedTrimSweeper} cuts anything left over. Readers
+ * never look past the cap, so the extra entries are invisible.
+ */
+@Component
+public class FeedTrimPolicy {
+
+    @Value("${feed.max-size:100}")
+    private int maxFeedSize;
+
+    @Value("${feed.trim.mode:lazy}")
+    private String mode;
+
+    @Value("${feed.trim.soft-limit:150}")
+    private int softLimit;
+
+    @Value("${feed.trim.probability:0.05}")
+    private double probability;
+
+    public int maxFeedSize() {
+        return maxFeedSize;
+    }
+
+    public boolean lazy() {
+        return "lazy".equalsIgnoreCase(mode);
+    }
+
+    /** Size above which the fan-out script trims a feed back to the cap. */
+    public int softLimit() {
+        return lazy() ? Math.max(maxFeedSize, softLimit) : maxFeedSize;
+    }
+
+    /** Whether a pipelined insert should be followed by a trim. */
+    public boolean trimOnInsert() {
+        return !lazy() || ThreadLocalRandom.current().nextDouble() < probability;
+    }
+}
@@ -0,0 +1,111 @@
+package com.social.ranker.service;
+
+import com.social.ranker.store.FeedKeys;
+import com.social.ranker.store.FeedShards;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Background half of lazy trimming: walks the feed keys of every {@link FeedShards} node with
+ * {@code SCAN} in small steps and
+ * trims every feed longer than the cap, so feeds that stopped receiving inserts below the soft
+ * limit still shrink back eventually.
+ */
+@Component
+@ConditionalOnProperty(name = "feed.store", havingValue = "redis", matchIfMissing = true)
+public class FeedTrimSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeedTrimSweeper.class);
+    private final FeedShards shards;
+    private final FeedTrimPolicy trimPolicy;
+    private final FeedKeys feedKeys;
+    private final Counter scanned;
+    private final Counter trimmed;
+
+    @Value("${feed.trim.sweeper.enabled:true}")
+    private boolean enabled;
+
+    @Value("${feed.trim.sweeper.batch-size:500}")
+    private int batchSize;
+
+    public FeedTrimSweeper(FeedShards shards, FeedTrimPolicy trimPolicy, FeedKeys feedKeys,
+                           MeterRegistry meterRegistry) {
+        this.shards = shards;
+        this.trimPolicy = trimPolicy;
+        this.feedKeys = feedKeys;
+        this.scanned = meterRegistry.counter("feed.trim.sweeper.scanned");
+        this.trimmed = meterRegistry.counter("feed.trim.sweeper.trimmed");
+    }
+
+    @Scheduled(fixedDelayString = "${feed.trim.sweeper.interval-ms:60000}")
+    public void sweep() {
+        if (!enabled || !trimPolicy.lazy()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        int before = (int) trimmed.count();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            sweep(shard);
+        }
+        logger.debug("Feed trim sweep trimmed {} feeds in {} ms",
+                (int) trimmed.count() - before, System.currentTimeMillis() - start);
+    }
+
+    private void sweep(int shard) {
+        StringRedisTemplate redis = shards.template(shard);
+        ScanOptions options = ScanOptions.scanOptions().match(feedKeys.pattern()).count(batchSize).build();
+        List<String> batch = new ArrayList<>(batchSize);
+        try (Cursor<String> keys = redis.scan(options)) {
+            while (keys.hasNext()) {
+                batch.add(keys.next());
+                if (batch.size() == batchSize) {
+                    trimBatch(redis, batch);
+                    batch.clear();
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Feed trim sweep of Redis {} stopped early", shards.node(shard), e);
+        }
+        if (!batch.isEmpty()) {
+            trimBatch(redis, batch);
+        }
+    }
+
+    private void trimBatch(StringRedisTemplate redis, List<String> keys) {
+        int cap = trimPolicy.maxFeedSize();
+        List<Object> sizes = redis.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            keys.forEach(conn::zCard);
+            return null;
+        });
+        List<String> oversized = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            if (sizes.get(i) instanceof Long size && size > cap) {
+                oversized.add(keys.get(i));
+            }
+        }
+        if (!oversized.isEmpty()) {
+            redis.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                oversized.forEach(key -> conn.zRemRange(key, 0, -(cap + 1)));
+                return null;
+            });
+        }
+        scanned.increment(keys.size());
+        trimmed.increment(oversized.size());
+    }
+}
@@ -0,0 +1,301 @@
+package com.social.ranker.service;
+
+import com.social.ranker.store.FeedKeys;
+import com.social.ranker.store.FeedShards;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.DefaultStringTuple;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.StringRedisConnection.StringTuple;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Combines feed writes of many posts into one {@code ZADD} with all members plus one trim per
+ * follower feed. A combining scope is opened by the batch listener on its own thread between
+ * {@link #begin()} and {@link #end()}; inside it {@link FanoutWriter} buffers instead of
+ * writing, and the buffer is flushed when the window or tuple limit is reached and before the
+ * batch is acknowledged, as one pipeline per {@link FeedShards} node. Work that must only happen
+ * once the writes are in Redis (fan-out checkpoints) is deferred until the next flush. A failed
+ * flush empties the buffer, so the listener must redeliver every author it held.
+ */
+@Component
+public class FeedWriteCombiner {
+
+    private final FeedShards shards;
+    private final RedisLatency redisLatency;
+    private final FeedTrimPolicy trimPolicy;
+    private final FeedKeys feedKeys;
+    // Buffers are kept per listener thread and reused across batches.
+    private final ThreadLocal<Buffer> buffers = new ThreadLocal<>();
+    private final Counter tuplesCombined;
+    private final Counter keysWritten;
+
+    @Value("${feed.fanout.combine.enabled:true}")
+    private boolean enabled;
+
+    @Value("${feed.fanout.combine.window-ms:50}")
+    private long windowMs;
+
+    @Value("${feed.fanout.combine.max-tuples:20000}")
+    private int maxTuples;
+
+    public FeedWriteCombiner(FeedShards shards, RedisLatency redisLatency, FeedTrimPolicy trimPolicy,
+                             FeedKeys feedKeys, MeterRegistry meterRegistry) {
+        this.shards = shards;
+        this.redisLatency = redisLatency;
+        this.trimPolicy = trimPolicy;
+        this.feedKeys = feedKeys;
+        this.tuplesCombined = meterRegistry.counter("feed.fanout.combine.tuples");
+        this.keysWritten = meterRegistry.counter("feed.fanout.combine.keys");
+    }
+
+    public void begin() {
+        if (!enabled) {
+            return;
+        }
+        Buffer buffer = buffers.get();
+        if (buffer == null) {
+            buffer = new Buffer(Math.max(16, maxTuples));
+            buffers.set(buffer);
+        }
+        buffer.clear();
+        buffer.open = true;
+    }
+
+    public void flush() {
+        Buffer buffer = current();
+        if (buffer != null) {
+            flush(buffer);
+        }
+    }
+
+    /** Closes the scope; anything not flushed by then is dropped along with its deferred work. */
+    public void end() {
+        Buffer buffer = buffers.get();
+        if (buffer != null) {
+            buffer.clear();
+            buffer.open = false;
+        }
+    }
+
+    boolean active() {
+        return current() != null;
+    }
+
+    private Buffer current() {
+        Buffer buffer = buffers.get();
+        return buffer != null && buffer.open ? buffer : null;
+    }
+
+    /** Buffers the writes when a scope is open on this thread; returns false otherwise. */
+    boolean add(String postId, List<String> followers, double[] scores) {
+        Buffer buffer = current();
+        if (buffer == null) {
+            return false;
+        }
+        for (int i = 0; i < followers.size(); i++) {
+            String key = feedKeys.feedKey(followers.get(i));
+            buffer.add(key, shards.shardOf(key), postId, scores[i]);
+            if (buffer.tupleCount >= maxTuples) {
+                flush(buffer);
+            }
+        }
+        if (System.currentTimeMillis() - buffer.startedAt >= windowMs) {
+            flush(buffer);
+        }
+        return true;
+    }
+
+    /** Runs {@code task} after the next flush when a scope is open; returns false otherwise. */
+    boolean defer(Runnable task) {
+        Buffer buffer = current();
+        if (buffer == null) {
+            return false;
+        }
+        if (buffer.tupleCount == 0) {
+            task.run();
+        } else {
+            buffer.deferred.add(task);
+        }
+        return true;
+    }
+
+    /** Whether this thread's scope holds writes that have not been flushed yet. */
+    boolean pending() {
+        Buffer buffer = current();
+        return buffer != null && buffer.tupleCount > 0;
+    }
+
+    private void flush(Buffer buffer) {
+        List<Runnable> deferred;
+        boolean flushed = false;
+        try {
+            if (buffer.tupleCount > 0) {
+                boolean[] touched = new boolean[shards.size()];
+                for (int slot = 0; slot < buffer.keys.length; slot++) {
+                    if (buffer.keys[slot] != null) {
+                        touched[buffer.keyShards[slot]] = true;
+                    }
+                }
+                for (int shard = 0; shard < touched.length; shard++) {
+                    if (touched[shard]) {
+                        flushShard(buffer, shard);
+                    }
+                }
+                tuplesCombined.increment(buffer.tupleCount);
+                keysWritten.increment(buffer.keyCount);
+            }
+            deferred = new ArrayList<>(buffer.deferred);
+            flushed = true;
+        } finally {
+            // A failed flush drops its writes and their checkpoints; the listener has them redelivered.
+            if (flushed) {
+                buffer.clear();
+            } else {
+                buffer.reset();
+            }
+        }
+        deferred.forEach(Runnable::run);
+    }
+
+    private void flushShard(Buffer buffer, int shard) {
+        StringRedisTemplate redis = shards.template(shard);
+        long start = System.nanoTime();
+        List<Object> replies = redis.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (int slot = 0; slot < buffer.keys.length; slot++) {
+                String key = buffer.keys[slot];
+                if (key == null || buffer.keyShards[slot] != shard) {
+                    continue;
+                }
+                Set<StringTuple> members = new LinkedHashSet<>();
+                for (int t = buffer.heads[slot]; t >= 0; t = buffer.next[t]) {
+                    String postId = buffer.posts[t];
+                    members.add(new DefaultStringTuple(postId.getBytes(StandardCharsets.UTF_8), postId, buffer.scores[t]));
+                }
+                conn.zAdd(key, members);
+                if (trimPolicy.trimOnInsert()) {
+                    conn.zRemRange(key, 0, -(trimPolicy.maxFeedSize() + 1));
+                }
+            }
+            return null;
+        });
+        redisLatency.record(System.nanoTime() - start, replies.size());
+    }
+
+    /**
+     * Open-addressing table of feed keys; each slot heads a linked list of (post, score) tuples
+     * held in parallel arrays, so buffering allocates nothing per tuple.
+     */
+    private static final class Buffer {
+        private static final int KEY_CAPACITY = 1024;
+
+        private String[] keys;
+        private int[] keyShards;
+        private int[] heads;
+        private int keyCount;
+
+        private String[] posts;
+        private double[] scores;
+        private int[] next;
+        private int tupleCount;
+
+        private final List<Runnable> deferred = new ArrayList<>();
+        private final int tupleCapacity;
+        private boolean open;
+        private long startedAt = System.currentTimeMillis();
+
+        Buffer(int tupleCapacity) {
+            this.tupleCapacity = tupleCapacity;
+            allocate();
+        }
+
+        private void allocate() {
+            keys = new String[KEY_CAPACITY];
+            keyShards = new int[KEY_CAPACITY];
+            heads = new int[KEY_CAPACITY];
+            Arrays.fill(heads, -1);
+            posts = new String[tupleCapacity];
+            scores = new double[tupleCapacity];
+            next = new int[tupleCapacity];
+        }
+
+        void add(String key, int shard, String postId, double score) {
+            if (tupleCount == posts.length) {
+                int capacity = posts.length * 2;
+                posts = Arrays.copyOf(posts, capacity);
+                scores = Arrays.copyOf(scores, capacity);
+                next = Arrays.copyOf(next, capacity);
+            }
+            int slot = slot(key);
+            if (keys[slot] == null) {
+                keys[slot] = key;
+                keyShards[slot] = shard;
+                if (++keyCount * 2 > keys.length) {
+                    rehash();
+                    slot = slot(key);
+                }
+            }
+            posts[tupleCount] = postId;
+            scores[tupleCount] = score;
+            next[tupleCount] = heads[slot];
+            heads[slot] = tupleCount++;
+        }
+
+        private int slot(String key) {
+            int mask = keys.length - 1;
+            int h = key.hashCode() * 0x9E3779B9;
+            int slot = (h ^ (h >>> 16)) & mask;
+            while (keys[slot] != null && !keys[slot].equals(key)) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void rehash() {
+            String[] oldKeys = keys;
+            int[] oldShards = keyShards;
+            int[] oldHeads = heads;
+            keys = new String[oldKeys.length * 2];
+            keyShards = new int[oldKeys.length * 2];
+            heads = new int[oldKeys.length * 2];
+            Arrays.fill(heads, -1);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != null) {
+                    int slot = slot(oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    keyShards[slot] = oldShards[i];
+                    heads[slot] = oldHeads[i];
+                }
+            }
+        }
+
+        void clear() {
+            Arrays.fill(keys, null);
+            Arrays.fill(heads, -1);
+            Arrays.fill(posts, 0, tupleCount, null);
+            keyCount = 0;
+            tupleCount = 0;
+            deferred.clear();
+            startedAt = System.currentTimeMillis();
+        }
+
+        /** Empties the buffer and gives back any capacity it grew, e.g. after a failed flush. */
+        void reset() {
+            if (keys.length > KEY_CAPACITY || posts.length > tupleCapacity) {
+                allocate();
+            }
+            clear();
+        }
+    }
+}
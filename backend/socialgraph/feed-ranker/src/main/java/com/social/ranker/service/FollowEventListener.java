@@ -0,0 +1,29 @@
+package com.social.ranker.service;
+
+import com.social.ranker.kafka.FollowEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+@Service
+public class FollowEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(FollowEventListener.class);
+    private final FollowerCache followerCache;
+
+    public FollowEventListener(FollowerCache followerCache) {
+        this.followerCache = followerCache;
+    }
+
+    // Every ranker instance holds its own cache, so each one consumes all follow events.
+    @KafkaListener(topics = "follow-events", groupId = "feed-ranker-follow-${random.uuid}",
+            containerFactory = "followEventListenerContainerFactory")
+    public void onFollowEvent(FollowEvent evt) {
+        if (evt == null || evt.getFollowee() == null) {
+            return;
+        }
+        logger.debug("{} event {} -> {}, invalidating follower cache", evt.getType(), evt.getFollower(), evt.getFollowee());
+        followerCache.invalidate(evt.getFollowee());
+    }
+}
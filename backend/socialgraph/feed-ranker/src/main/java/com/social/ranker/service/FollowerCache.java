@@ -0,0 +1,144 @@
+package com.social.ranker.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Size-bounded LRU cache of follower lists keyed by author, with a TTL as a safety net for
+ * missed invalidations. Entries are dropped as soon as a follow event for the author arrives,
+ * and a list fetched before that event is not put back: callers take a {@link #version()}
+ * before fetching and pass it to {@link #put}. Authors whose list is too large to keep still get
+ * their follower count cached through {@link #putCount}, so the lane router can classify their
+ * posts without asking user-service again.
+ */
+@Component
+public class FollowerCache {
+
+    private final int maxEntries;
+    private final int maxListSize;
+    private final long ttlMillis;
+    private final Map<String, Entry> entries;
+    // Version of the latest invalidation of each of the last maxEntries authors invalidated.
+    private final Map<String, Long> invalidated;
+    private long version;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private final Counter invalidations;
+
+    public FollowerCache(@Value("${feed.follower-cache.max-entries:10000}") int maxEntries,
+                         @Value("${feed.follower-cache.max-list-size:10000}") int maxListSize,
+                         @Value("${feed.follower-cache.ttl:5m}") Duration ttl,
+                         MeterRegistry meterRegistry) {
+        this.maxEntries = maxEntries;
+        this.maxListSize = maxListSize;
+        this.ttlMillis = ttl.toMillis();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > FollowerCache.this.maxEntries) {
+                    FollowerCache.this.evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.invalidated = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > FollowerCache.this.maxEntries;
+            }
+        };
+        this.hits = meterRegistry.counter("feed.follower-cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("feed.follower-cache.requests", "result", "miss");
+        this.evictions = meterRegistry.counter("feed.follower-cache.evictions");
+        this.invalidations = meterRegistry.counter("feed.follower-cache.invalidations");
+        Gauge.builder("feed.follower-cache.size", this, FollowerCache::size).register(meterRegistry);
+    }
+
+    public synchronized List<String> get(String authorId) {
+        Entry entry = fresh(authorId);
+        if (entry == null || entry.followers == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.followers;
+    }
+
+    /** Cached follower count, from a cached list or a {@link #putCount}; null when unknown. */
+    public synchronized Long count(String authorId) {
+        Entry entry = fresh(authorId);
+        return entry == null ? null : entry.count;
+    }
+
+    private Entry fresh(String authorId) {
+        Entry entry = entries.get(authorId);
+        if (entry != null && System.currentTimeMillis() - entry.loadedAt > ttlMillis) {
+            entries.remove(authorId);
+            return null;
+        }
+        return entry;
+    }
+
+    public boolean accepts(long followerCount) {
+        return followerCount <= maxListSize;
+    }
+
+    /** Current version; take it before fetching a list that will be {@link #put}. */
+    public synchronized long version() {
+        return version;
+    }
+
+    /** Caches a list fetched after {@code fetchedAt}, unless the author was invalidated since. */
+    public synchronized void put(String authorId, List<String> followers, long fetchedAt) {
+        if (!accepts(followers.size())) {
+            return;
+        }
+        Long invalidatedAt = invalidated.get(authorId);
+        if (invalidatedAt != null && invalidatedAt > fetchedAt) {
+            return;
+        }
+        entries.put(authorId, new Entry(List.copyOf(followers), followers.size(), System.currentTimeMillis()));
+    }
+
+    /**
+     * Caches only the follower count, fetched after {@code fetchedAt}; a cached list of the author
+     * is kept, since it carries the same count.
+     */
+    public synchronized void putCount(String authorId, long count, long fetchedAt) {
+        Long invalidatedAt = invalidated.get(authorId);
+        if (invalidatedAt != null && invalidatedAt > fetchedAt) {
+            return;
+        }
+        Entry entry = fresh(authorId);
+        if (entry != null && entry.followers != null) {
+            return;
+        }
+        entries.put(authorId, new Entry(null, count, System.currentTimeMillis()));
+    }
+
+    public synchronized void invalidate(String authorId) {
+        invalidated.remove(authorId);
+        invalidated.put(authorId, ++version);
+        if (entries.remove(authorId) != null) {
+            invalidations.increment();
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /** {@code followers} is null for a count-only entry. */
+    private record Entry(List<String> followers, long count, long loadedAt) {
+    }
+}
@@ -0,0 +1,46 @@
+package com.social.ranker.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Publishes the consumer lag of every fan-out lane as {@code feed.lane.lag{lane}}. */
+@Component
+@ConditionalOnProperty(name = "feed.ranker.listener-mode", havingValue = "lanes")
+public class LaneLagMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(LaneLagMonitor.class);
+    private final ConsumerLagReader lagReader;
+    private final Map<FanoutLane, AtomicLong> lags = new EnumMap<>(FanoutLane.class);
+
+    public LaneLagMonitor(ConsumerLagReader lagReader, MeterRegistry meterRegistry) {
+        this.lagReader = lagReader;
+        for (FanoutLane lane : FanoutLane.values()) {
+            AtomicLong lag = new AtomicLong();
+            lags.put(lane, lag);
+            Gauge.builder("feed.lane.lag", lag, AtomicLong::get)
+                    .description("Records waiting in the lane topic")
+                    .tag("lane", lane.tag())
+                    .register(meterRegistry);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${feed.lanes.lag-interval-ms:15000}")
+    public void refresh() {
+        for (FanoutLane lane : FanoutLane.values()) {
+            try {
+                lags.get(lane).set(lagReader.lag(lane.groupId(), lane.topic()));
+            } catch (Exception e) {
+                logger.warn("Could not read consumer lag of {} lane", lane.tag(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.social.ranker.service;
+
+import com.social.ranker.kafka.PostEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Service;
+
+@Service
+public class PostSnapshotListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostSnapshotListener.class);
+    private final PostSnapshots postSnapshots;
+
+    public PostSnapshotListener(PostSnapshots postSnapshots) {
+        this.postSnapshots = postSnapshots;
+    }
+
+    // Snapshots are shared in Redis, so one ranker instance per event is enough.
+    @KafkaListener(topics = "post-updated", groupId = "feed-ranker-snapshots")
+    public void onPostUpdated(PostEvent evt, Acknowledgment ack) {
+        if (evt != null) {
+            logger.debug("Post {} updated, rewriting snapshot", evt.getPostId());
+            postSnapshots.updated(evt);
+        }
+        ack.acknowledge();
+    }
+
+    @KafkaListener(topics = "post-deleted", groupId = "feed-ranker-snapshots")
+    public void onPostDeleted(PostEvent evt, Acknowledgment ack) {
+        if (evt != null) {
+            logger.debug("Post {} deleted, tombstoning snapshot", evt.getPostId());
+            postSnapshots.deleted(evt.getPostId());
+        }
+        ack.acknowledge();
+    }
+}
@@ -0,0 +1,108 @@
+package com.social.ranker.service;
+
+import com.social.ranker.kafka.PostEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Denormalised copies of posts in Redis hashes {@code post:{postId}} (fields {@code a} author,
+ * {@code c} content cut to {@code feed.snapshots.max-content} characters, {@code t} timestamp),
+ * so feed-api can hydrate a page with one pipelined {@code HMGET} instead of a call to
+ * feed-ingestor. They live on {@code spring.data.redis} and expire {@code feed.snapshots.ttl}
+ * after the post was written. A deleted post leaves a tombstone field {@code d} for the same
+ * time, and {@link #created} only fills fields that are not set yet, so a create consumed after
+ * the post's update or delete cannot bring the old content back.
+ */
+@Component
+public class PostSnapshots {
+
+    static final String KEY_PREFIX = "post:";
+
+    private final StringRedisTemplate redis;
+
+    @Value("${feed.snapshots.enabled:true}")
+    private boolean enabled;
+
+    @Value("${feed.snapshots.ttl:7d}")
+    private Duration ttl;
+
+    @Value("${feed.snapshots.max-content:280}")
+    private int maxContent;
+
+    public PostSnapshots(StringRedisTemplate redis) {
+        this.redis = redis;
+    }
+
+    /** Writes snapshots of new posts in one pipelined round trip. */
+    public void created(List<PostEvent> events) {
+        if (!enabled || events.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        redis.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (PostEvent evt : events) {
+                long expireAt = evt.getTimestamp() + ttl.toMillis();
+                if (evt.getPostId() == null || expireAt <= now) {
+                    continue;
+                }
+                String key = KEY_PREFIX + evt.getPostId();
+                conn.hSetNX(key, "a", String.valueOf(evt.getAuthorId()));
+                conn.hSetNX(key, "c", truncate(evt.getContent()));
+                conn.hSetNX(key, "t", String.valueOf(evt.getTimestamp()));
+                conn.pExpireAt(key, expireAt);
+            }
+            return null;
+        });
+    }
+
+    public void updated(PostEvent evt) {
+        long expireAt = evt.getTimestamp() + ttl.toMillis();
+        if (!enabled || evt.getPostId() == null || expireAt <= System.currentTimeMillis()) {
+            return;
+        }
+        String key = KEY_PREFIX + evt.getPostId();
+        redis.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            conn.hMSet(key, Map.of("a", String.valueOf(evt.getAuthorId()), "c", truncate(evt.getContent()),
+                    "t", String.valueOf(evt.getTimestamp())));
+            conn.pExpireAt(key, expireAt);
+            return null;
+        });
+    }
+
+    public void deleted(Long postId) {
+        if (!enabled || postId == null) {
+            return;
+        }
+        String key = KEY_PREFIX + postId;
+        redis.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            conn.hSet(key, "d", "1");
+            conn.pExpire(key, ttl.toMillis());
+            return null;
+        });
+    }
+
+    private String truncate(String content) {
+        if (content == null) {
+            return "";
+        }
+        if (content.length() <= maxContent) {
+            return content;
+        }
+        int end = maxContent;
+        // Do not split a surrogate pair.
+        if (Character.isHighSurrogate(content.charAt(end - 1))) {
+            end--;
+        }
+        return content.substring(0, end);
+    }
+}
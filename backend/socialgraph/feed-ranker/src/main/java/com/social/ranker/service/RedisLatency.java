@@ -0,0 +1,29 @@
+package com.social.ranker.service;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Exponentially weighted moving average of Redis latency per command, fed by every fan-out write
+ * and, while fan-out is paused, by {@link FanoutConcurrencyController}'s PING probes. A pipeline
+ * or script is recorded as its duration over the number of commands it covered, so a 20000-tuple
+ * combiner flush and a single PING land on the same scale.
+ */
+@Component
+public class RedisLatency {
+
+    private static final double ALPHA = 0.2;
+    private double ewmaMillis;
+
+    public void record(long nanos) {
+        record(nanos, 1);
+    }
+
+    public synchronized void record(long nanos, int commands) {
+        double millis = nanos / 1_000_000.0 / Math.max(1, commands);
+        ewmaMillis = ewmaMillis == 0 ? millis : ALPHA * millis + (1 - ALPHA) * ewmaMillis;
+    }
+
+    public synchronized double millis() {
+        return ewmaMillis;
+    }
+}
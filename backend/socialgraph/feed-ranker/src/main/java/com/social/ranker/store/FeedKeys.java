@@ -0,0 +1,56 @@
+package com.social.ranker.store;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Redis key names of follower feeds. With {@code feed.encoding=string} feeds live under
+ * {@code feed:{username}}; with {@code compact} under {@code f:} plus an 11-character hash of the
+ * username, so key length no longer grows with the username. feed-api derives the same names.
+ */
+@Component
+public class FeedKeys {
+
+    private final boolean compact;
+
+    public FeedKeys(@Value("${feed.encoding:string}") String encoding) {
+        this.compact = "compact".equalsIgnoreCase(encoding);
+    }
+
+    public String feedKey(String userId) {
+        return compact ? compactKey(userId) : legacyKey(userId);
+    }
+
+    /** {@code SCAN} pattern matching every feed key of the active encoding. */
+    public String pattern() {
+        return compact ? "f:*" : "feed:*";
+    }
+
+    public static String legacyKey(String userId) {
+        return "feed:" + userId;
+    }
+
+    public static String compactKey(String userId) {
+        long h = hash(userId);
+        byte[] bytes = new byte[8];
+        for (int i = 0; i < 8; i++) {
+            bytes[i] = (byte) (h >>> (56 - 8 * i));
+        }
+        return "f:" + Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /** FNV-1a over the UTF-8 bytes with a final avalanche step, so nearby strings spread apart. */
+    static long hash(String s) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : s.getBytes(StandardCharsets.UTF_8)) {
+            h = (h ^ b) * 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
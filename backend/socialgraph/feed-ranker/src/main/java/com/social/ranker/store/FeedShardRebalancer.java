@@ -0,0 +1,195 @@
+package com.social.ranker.store;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.DefaultStringTuple;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.StringRedisConnection.StringTuple;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Moves feeds to the node that owns them after {@code feed.shards.nodes} changed. Every node is
+ * scanned for feed keys the ring now places elsewhere; those are copied to their owner with
+ * {@code ZADD} (merging with anything already written there), trimmed and deleted at the source.
+ * Run it once every ranker and feed-api instance is on the new node list, via
+ * {@code POST /actuator/feedshards}; until it finishes, feeds not yet moved read as empty.
+ * {@code POST /actuator/feedshards/dry-run} only counts the misplaced feeds.
+ */
+@Component
+@Endpoint(id = "feedshards")
+@ConditionalOnProperty(name = "feed.store", havingValue = "redis", matchIfMissing = true)
+public class FeedShardRebalancer {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeedShardRebalancer.class);
+
+    private final FeedShards shards;
+    private final FeedKeys feedKeys;
+    private final Counter moved;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile Map<String, Object> lastRun = Map.of();
+
+    @Value("${feed.shards.rebalance.batch-size:500}")
+    private int batchSize;
+
+    @Value("${feed.max-size:100}")
+    private int maxFeedSize;
+
+    public FeedShardRebalancer(FeedShards shards, FeedKeys feedKeys, MeterRegistry meterRegistry) {
+        this.shards = shards;
+        this.feedKeys = feedKeys;
+        this.moved = meterRegistry.counter("feed.shards.rebalance.moved");
+    }
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        List<String> nodes = new ArrayList<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            nodes.add(shards.node(shard));
+        }
+        status.put("nodes", nodes);
+        status.put("running", running.get());
+        status.put("lastRun", lastRun);
+        return status;
+    }
+
+    /** Starts a rebalance in the background. */
+    @WriteOperation
+    public Map<String, Object> rebalance() {
+        return start(false);
+    }
+
+    /** Starts a background run that only counts misplaced feeds; {@code mode} must be {@code dry-run}. */
+    @WriteOperation
+    public Map<String, Object> rebalance(@Selector String mode) {
+        if (!"dry-run".equals(mode)) {
+            return Map.of("started", false, "reason", "unknown mode " + mode);
+        }
+        return start(true);
+    }
+
+    private Map<String, Object> start(boolean countOnly) {
+        if (shards.size() == 1) {
+            return Map.of("started", false, "reason", "single node");
+        }
+        if (!running.compareAndSet(false, true)) {
+            return Map.of("started", false, "reason", "already running");
+        }
+        Thread.ofVirtual().name("feed-shard-rebalancer").start(() -> {
+            try {
+                run(countOnly);
+            } finally {
+                running.set(false);
+            }
+        });
+        return Map.of("started", true, "dryRun", countOnly);
+    }
+
+    private void run(boolean dryRun) {
+        long start = System.currentTimeMillis();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("dryRun", dryRun);
+        for (int shard = 0; shard < shards.size(); shard++) {
+            long misplaced = 0;
+            try {
+                misplaced = rebalance(shard, dryRun);
+            } catch (Exception e) {
+                logger.error("Rebalancing feeds of Redis {} stopped early", shards.node(shard), e);
+            }
+            result.put(shards.node(shard), misplaced);
+        }
+        result.put("tookMs", System.currentTimeMillis() - start);
+        lastRun = result;
+        logger.info("Feed shard rebalance finished: {}", result);
+    }
+
+    /** Returns how many feeds on {@code source} belong to another node. */
+    private long rebalance(int source, boolean dryRun) {
+        StringRedisTemplate redis = shards.template(source);
+        ScanOptions options = ScanOptions.scanOptions().match(feedKeys.pattern()).count(batchSize).build();
+        List<List<String>> byTarget = new ArrayList<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            byTarget.add(new ArrayList<>());
+        }
+        long misplaced = 0;
+        try (Cursor<String> keys = redis.scan(options)) {
+            while (keys.hasNext()) {
+                String key = keys.next();
+                int target = shards.shardOf(key);
+                if (target == source) {
+                    continue;
+                }
+                misplaced++;
+                List<String> batch = byTarget.get(target);
+                batch.add(key);
+                if (batch.size() == batchSize && !dryRun) {
+                    move(source, target, batch);
+                    batch.clear();
+                }
+            }
+        }
+        if (!dryRun) {
+            for (int target = 0; target < byTarget.size(); target++) {
+                if (!byTarget.get(target).isEmpty()) {
+                    move(source, target, byTarget.get(target));
+                }
+            }
+        }
+        return misplaced;
+    }
+
+    private void move(int source, int target, List<String> keys) {
+        StringRedisTemplate from = shards.template(source);
+        List<Object> feeds = from.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            keys.forEach(key -> conn.zRangeWithScores(key, 0, -1));
+            return null;
+        });
+        shards.template(target).executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (int i = 0; i < keys.size(); i++) {
+                if (!(feeds.get(i) instanceof Set<?> entries) || entries.isEmpty()) {
+                    continue;
+                }
+                Set<StringTuple> members = new LinkedHashSet<>();
+                for (Object entry : entries) {
+                    if (entry instanceof ZSetOperations.TypedTuple<?> tuple && tuple.getValue() != null) {
+                        String postId = tuple.getValue().toString();
+                        members.add(new DefaultStringTuple(postId.getBytes(StandardCharsets.UTF_8), postId, tuple.getScore()));
+                    }
+                }
+                if (members.isEmpty()) {
+                    continue;
+                }
+                conn.zAdd(keys.get(i), members);
+                conn.zRemRange(keys.get(i), 0, -(maxFeedSize + 1));
+            }
+            return null;
+        });
+        from.delete(keys);
+        moved.increment(keys.size());
+        logger.debug("Moved {} feeds from Redis {} to {}", keys.size(), shards.node(source), shards.node(target));
+    }
+}
@@ -0,0 +1,25 @@
+package com.social.ranker.store;
+
+import java.util.List;
+
+/**
+ * Storage of per-user feeds: sorted by score, highest first, and bounded to
+ * {@code feed.max-size}. Selected with {@code feed.store} ({@code redis} or {@code offheap}).
+ */
+public interface FeedStore {
+
+    /** Adds one post to the feeds of many users; {@code scores[i]} belongs to {@code userIds.get(i)}. */
+    int add(String postId, List<String> userIds, double[] scores);
+
+    /** Drops everything below the top {@code maxSize} entries. */
+    void trim(String userId, int maxSize);
+
+    /** Entries at ranks {@code start..end} (inclusive), highest score first. */
+    List<FeedEntry> rangeByRank(String userId, long start, long end);
+
+    /**
+     * Up to {@code limit} entries with score at most {@code maxScore}, highest first, after skipping
+     * {@code offset} of them; the score cursor of a paging reader.
+     */
+    List<FeedEntry> rangeByScore(String userId, double maxScore, int offset, int limit);
+}
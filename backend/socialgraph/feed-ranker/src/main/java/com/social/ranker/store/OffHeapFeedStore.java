@@ -0,0 +1,207 @@
+package com.social.ranker.store;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * In-process feeds for single-node runs, benchmarks and tests without Redis. Every user owns a
+ * fixed slot in direct memory holding an entry count and up to {@code feed.max-size}
+ * {@code (long postId, double score)} pairs kept sorted by score, so an insert into a full feed
+ * evicts the lowest entry just like the Redis trim does. Nothing is allocated on the heap per
+ * entry; only the user-to-slot index lives on the heap. Post ids must be numeric.
+ */
+@Component
+@ConditionalOnProperty(name = "feed.store", havingValue = "offheap")
+public class OffHeapFeedStore implements FeedStore {
+
+    private static final int HEADER_BYTES = 4;
+    private static final int ENTRY_BYTES = 16;
+    private static final int SLOTS_PER_BLOCK = 4096;
+    private static final int MAX_BLOCKS = 1 << 16;
+    private static final int LOCK_STRIPES = 1024;
+
+    private final int capacity;
+    private final int slotBytes;
+    private final ConcurrentHashMap<String, Integer> slots = new ConcurrentHashMap<>();
+    private final AtomicInteger nextSlot = new AtomicInteger();
+    private final AtomicReferenceArray<ByteBuffer> blocks = new AtomicReferenceArray<>(MAX_BLOCKS);
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    public OffHeapFeedStore(@Value("${feed.max-size:100}") int capacity) {
+        this.capacity = capacity;
+        this.slotBytes = HEADER_BYTES + capacity * ENTRY_BYTES;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    @Override
+    public int add(String postId, List<String> userIds, double[] scores) {
+        long id = Long.parseLong(postId);
+        for (int i = 0; i < userIds.size(); i++) {
+            int slot = slotOf(userIds.get(i), true);
+            synchronized (lock(slot)) {
+                insert(block(slot), offset(slot), id, scores[i]);
+            }
+        }
+        return userIds.size();
+    }
+
+    @Override
+    public void trim(String userId, int maxSize) {
+        int slot = slotOf(userId, false);
+        if (slot < 0) {
+            return;
+        }
+        synchronized (lock(slot)) {
+            ByteBuffer block = block(slot);
+            int base = offset(slot);
+            block.putInt(base, Math.min(block.getInt(base), Math.max(0, maxSize)));
+        }
+    }
+
+    @Override
+    public List<FeedEntry> rangeByRank(String userId, long start, long end) {
+        int slot = slotOf(userId, false);
+        if (slot < 0 || start < 0 || end < start) {
+            return List.of();
+        }
+        synchronized (lock(slot)) {
+            ByteBuffer block = block(slot);
+            int base = offset(slot);
+            int count = block.getInt(base);
+            int to = (int) Math.min(end, count - 1L);
+            List<FeedEntry> entries = new ArrayList<>(Math.max(0, to - (int) start + 1));
+            for (int i = (int) start; i <= to; i++) {
+                entries.add(entry(block, base, i));
+            }
+            return entries;
+        }
+    }
+
+    @Override
+    public List<FeedEntry> rangeByScore(String userId, double maxScore, int offset, int limit) {
+        int slot = slotOf(userId, false);
+        if (slot < 0 || limit <= 0) {
+            return List.of();
+        }
+        synchronized (lock(slot)) {
+            ByteBuffer block = block(slot);
+            int base = offset(slot);
+            int count = block.getInt(base);
+            int i = 0;
+            while (i < count && score(block, base, i) > maxScore) {
+                i++;
+            }
+            i += Math.max(0, offset);
+            List<FeedEntry> entries = new ArrayList<>(Math.min(limit, Math.max(0, count - i)));
+            for (; i < count && entries.size() < limit; i++) {
+                entries.add(entry(block, base, i));
+            }
+            return entries;
+        }
+    }
+
+    public int users() {
+        return slots.size();
+    }
+
+    /** Inserts or re-scores a post, keeping entries sorted by descending score. */
+    private void insert(ByteBuffer block, int base, long postId, double score) {
+        int count = block.getInt(base);
+        for (int i = 0; i < count; i++) {
+            if (block.getLong(entryOffset(base, i)) == postId) {
+                shift(block, base, i + 1, count, -1);
+                count--;
+                break;
+            }
+        }
+        int pos = count;
+        for (int i = 0; i < count; i++) {
+            if (score > score(block, base, i)) {
+                pos = i;
+                break;
+            }
+        }
+        if (pos >= capacity) {
+            block.putInt(base, count);
+            return;
+        }
+        int kept = Math.min(count, capacity - 1);
+        shift(block, base, pos, kept, 1);
+        block.putLong(entryOffset(base, pos), postId);
+        block.putDouble(entryOffset(base, pos) + 8, score);
+        block.putInt(base, kept + 1);
+    }
+
+    /** Moves entries {@code from..to-1} by {@code delta} positions. */
+    private static void shift(ByteBuffer block, int base, int from, int to, int delta) {
+        if (delta > 0) {
+            for (int i = to - 1; i >= from; i--) {
+                copy(block, base, i, i + delta);
+            }
+        } else {
+            for (int i = from; i < to; i++) {
+                copy(block, base, i, i + delta);
+            }
+        }
+    }
+
+    private static void copy(ByteBuffer block, int base, int from, int to) {
+        block.putLong(entryOffset(base, to), block.getLong(entryOffset(base, from)));
+        block.putDouble(entryOffset(base, to) + 8, block.getDouble(entryOffset(base, from) + 8));
+    }
+
+    private static FeedEntry entry(ByteBuffer block, int base, int i) {
+        return new FeedEntry(String.valueOf(block.getLong(entryOffset(base, i))), score(block, base, i));
+    }
+
+    private static double score(ByteBuffer block, int base, int i) {
+        return block.getDouble(entryOffset(base, i) + 8);
+    }
+
+    private static int entryOffset(int base, int i) {
+        return base + HEADER_BYTES + i * ENTRY_BYTES;
+    }
+
+    private int slotOf(String userId, boolean create) {
+        if (!create) {
+            Integer slot = slots.get(userId);
+            return slot == null ? -1 : slot;
+        }
+        return slots.computeIfAbsent(userId, u -> {
+            int slot = nextSlot.getAndIncrement();
+            if (slot / SLOTS_PER_BLOCK >= MAX_BLOCKS) {
+                throw new IllegalStateException("Off-heap feed store is full");
+            }
+            return slot;
+        });
+    }
+
+    private ByteBuffer block(int slot) {
+        int index = slot / SLOTS_PER_BLOCK;
+        ByteBuffer block = blocks.get(index);
+        if (block == null) {
+            // Fresh direct buffers are zeroed, so every slot starts with a count of 0.
+            blocks.compareAndSet(index, null, ByteBuffer.allocateDirect(SLOTS_PER_BLOCK * slotBytes));
+            block = blocks.get(index);
+        }
+        return block;
+    }
+
+    private int offset(int slot) {
+        return (slot % SLOTS_PER_BLOCK) * slotBytes;
+    }
+
+    private Object lock(int slot) {
+        return locks[slot % LOCK_STRIPES];
+    }
+}
@@ -0,0 +1,66 @@
+package com.social.ranker.store;
+
+import com.social.ranker.service.FanoutWriter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Feeds as Redis sorted sets named by {@link FeedKeys} on their {@link FeedShards} node; writes go
+ * through {@link FanoutWriter}.
+ */
+@Component
+@ConditionalOnProperty(name = "feed.store", havingValue = "redis", matchIfMissing = true)
+public class RedisFeedStore implements FeedStore {
+
+    private final FeedShards shards;
+    private final FanoutWriter fanoutWriter;
+    private final FeedKeys feedKeys;
+
+    public RedisFeedStore(FeedShards shards, FanoutWriter fanoutWriter, FeedKeys feedKeys) {
+        this.shards = shards;
+        this.fanoutWriter = fanoutWriter;
+        this.feedKeys = feedKeys;
+    }
+
+    @Override
+    public int add(String postId, List<String> userIds, double[] scores) {
+        return fanoutWriter.write(postId, userIds, scores);
+    }
+
+    @Override
+    public void trim(String userId, int maxSize) {
+        String key = feedKeys.feedKey(userId);
+        shards.forKey(key).opsForZSet().removeRange(key, 0, -(maxSize + 1));
+    }
+
+    @Override
+    public List<FeedEntry> rangeByRank(String userId, long start, long end) {
+        String key = feedKeys.feedKey(userId);
+        return entries(shards.forKey(key).opsForZSet().reverseRangeWithScores(key, start, end));
+    }
+
+    @Override
+    public List<FeedEntry> rangeByScore(String userId, double maxScore, int offset, int limit) {
+        String key = feedKeys.feedKey(userId);
+        return entries(shards.forKey(key).opsForZSet().reverseRangeByScoreWithScores(
+                key, Double.NEGATIVE_INFINITY, maxScore, offset, limit));
+    }
+
+    private static List<FeedEntry> entries(Set<ZSetOperations.TypedTuple<String>> tuples) {
+        if (tuples == null) {
+            return List.of();
+        }
+        List<FeedEntry> entries = new ArrayList<>(tuples.size());
+        for (ZSetOperations.TypedTuple<String> t : tuples) {
+            if (t.getValue() != null && t.getScore() != null) {
+                entries.add(new FeedEntry(t.getValue(), t.getScore()));
+            }
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,13 @@
+-- Inserts one post into every feed in KEYS and trims each feed back to its cap once it has
+-- grown past the soft limit (equal to the cap when every insert must trim).
+-- ARGV[1] = post id (member), ARGV[2] = max feed size, ARGV[3] = soft limit,
+-- ARGV[3 + i] = score for KEYS[i]
+local cap = tonumber(ARGV[2])
+local soft = tonumber(ARGV[3])
+for i = 1, #KEYS do
+  redis.call('ZADD', KEYS[i], ARGV[3 + i], ARGV[1])
+  if redis.call('ZCARD', KEYS[i]) > soft then
+    redis.call('ZREMRANGEBYRANK', KEYS[i], 0, -(cap + 1))
+  end
+end
+return #KEYS
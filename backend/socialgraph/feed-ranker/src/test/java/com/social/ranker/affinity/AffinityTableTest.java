@@ -0,0 +1,94 @@
+package com.social.ranker.affinity;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AffinityTableTest {
+
+    private static final long HALF_LIFE = 1000;
+
+    @Test
+    void scoresHalveEveryHalfLife() {
+        AffinityTable table = new AffinityTable(16, HALF_LIFE);
+        table.add("bob", "alice", 4.0, 0);
+
+        assertEquals(4.0, table.score("bob", "alice", 0), 1e-6);
+        assertEquals(2.0, table.score("bob", "alice", HALF_LIFE), 1e-6);
+        assertEquals(1.0, table.score("bob", "alice", 2 * HALF_LIFE), 1e-6);
+        assertEquals(0.0, table.score("alice", "bob", 0));
+    }
+
+    @Test
+    void addsToTheDecayedScore() {
+        AffinityTable table = new AffinityTable(16, HALF_LIFE);
+        table.add("bob", "alice", 4.0, 0);
+        table.add("bob", "alice", 1.0, HALF_LIFE);
+
+        assertEquals(3.0, table.score("bob", "alice", HALF_LIFE), 1e-6);
+    }
+
+    @Test
+    void outOfOrderEventDoesNotOverDecay() {
+        AffinityTable inOrder = new AffinityTable(16, HALF_LIFE);
+        inOrder.add("bob", "alice", 1.0, 0);
+        inOrder.add("bob", "alice", 4.0, HALF_LIFE);
+
+        AffinityTable reordered = new AffinityTable(16, HALF_LIFE);
+        reordered.add("bob", "alice", 4.0, HALF_LIFE);
+        reordered.add("bob", "alice", 1.0, 0);
+
+        long now = 3 * HALF_LIFE;
+        assertEquals(inOrder.score("bob", "alice", now), reordered.score("bob", "alice", now), 1e-6);
+        assertEquals(1.125, reordered.score("bob", "alice", now), 1e-6);
+    }
+
+    @Test
+    void growsPastInitialCapacityKeepingEveryPair() {
+        AffinityTable table = new AffinityTable(16, HALF_LIFE);
+        for (int i = 0; i < 1000; i++) {
+            table.add("viewer" + i, "alice", i + 1, 0);
+        }
+
+        assertEquals(1000, table.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i + 1, table.score("viewer" + i, "alice", 0), 1e-3);
+        }
+    }
+
+    @Test
+    void pruneDropsDecayedPairs() {
+        AffinityTable table = new AffinityTable(16, HALF_LIFE);
+        table.add("bob", "alice", 1.0, 0);
+        table.add("carol", "alice", 1.0, 4 * HALF_LIFE);
+
+        table.prune(4 * HALF_LIFE, 0.5);
+
+        assertEquals(1, table.size());
+        assertEquals(0.0, table.score("bob", "alice", 4 * HALF_LIFE));
+        assertEquals(1.0, table.score("carol", "alice", 4 * HALF_LIFE), 1e-6);
+    }
+
+    @Test
+    void scoresLinesUpWithViewersAndSurvivesSnapshot() throws Exception {
+        AffinityTable table = new AffinityTable(16, HALF_LIFE);
+        table.add("bob", "alice", 2.0, 0);
+        table.add("dave", "alice", 1.0, 0);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        table.writeTo(new DataOutputStream(bytes));
+        AffinityTable restored = new AffinityTable(16, HALF_LIFE);
+        restored.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        double[] out = new double[3];
+        restored.scores("alice", List.of("bob", "carol", "dave"), 0, out);
+        assertArrayEquals(new double[] {2.0, 0.0, 1.0}, out, 1e-6);
+    }
+}
@@ -0,0 +1,98 @@
+package com.social.ranker.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CompactFollowerReaderTest {
+
+    // CompactFollowerCodec.encode(List.of("bob", "bobby", "carol"), 41L, 3L, false) in user-service;
+    // CompactFollowerCodecTest there pins the encoder to the same bytes.
+    static final byte[] GOLDEN = {
+            'F', 0, 3, 42, 4,
+            0, 3, 'b', 'o', 'b',
+            3, 2, 'b', 'y',
+            0, 5, 'c', 'a', 'r', 'o', 'l'};
+
+    @Test
+    void decodesThePageUserServiceEncodes() throws IOException {
+        CompactFollowerReader reader = new CompactFollowerReader(new ByteArrayInputStream(GOLDEN));
+
+        assertEquals(3, reader.count());
+        assertEquals(41L, reader.nextCursor());
+        assertEquals(3L, reader.total());
+        assertEquals(List.of("bob", "bobby", "carol"), readAll(reader, 10));
+    }
+
+    @Test
+    void helperEncodesLikeUserService() {
+        assertArrayEquals(GOLDEN, CompactPages.encode(List.of("carol", "bob", "bobby"), 41L, 3L, false));
+    }
+
+    @Test
+    void roundTripsGzippedPages() throws IOException {
+        List<String> followers = IntStream.range(0, 3000).mapToObj(i -> "user-" + i).sorted().toList();
+        byte[] encoded = CompactPages.encode(followers, 1L << 40, null, true);
+
+        CompactFollowerReader reader = new CompactFollowerReader(new ByteArrayInputStream(encoded));
+
+        assertEquals(3000, reader.count());
+        assertEquals(1L << 40, reader.nextCursor());
+        assertNull(reader.total());
+        assertEquals(followers, readAll(reader, 500));
+    }
+
+    @Test
+    void roundTripsAnEmptyLastPage() throws IOException {
+        CompactFollowerReader reader = new CompactFollowerReader(
+                new ByteArrayInputStream(CompactPages.encode(List.of(), null, 0L, false)));
+
+        assertEquals(0, reader.count());
+        assertNull(reader.nextCursor());
+        assertEquals(0L, reader.total());
+        assertEquals(0, reader.read(new String[4]));
+    }
+
+    @Test
+    void roundTripsMultiByteNamesSharingPrefixes() throws IOException {
+        List<String> followers = List.of("zoë", "zoë_2", "zoëy", "日本", "日本語");
+        CompactFollowerReader reader = new CompactFollowerReader(
+                new ByteArrayInputStream(CompactPages.encode(followers, null, null, true)));
+
+        assertEquals(followers, readAll(reader, 2));
+    }
+
+    @Test
+    void rejectsOtherPayloads() {
+        assertThrows(IOException.class, () -> new CompactFollowerReader(new ByteArrayInputStream("[]".getBytes())));
+    }
+
+    @Test
+    void rejectsTruncatedPages() throws IOException {
+        CompactFollowerReader reader = new CompactFollowerReader(
+                new ByteArrayInputStream(Arrays.copyOf(GOLDEN, GOLDEN.length - 2)));
+
+        assertThrows(EOFException.class, () -> readAll(reader, 10));
+    }
+
+    private static List<String> readAll(CompactFollowerReader reader, int batch) throws IOException {
+        List<String> names = new ArrayList<>();
+        String[] into = new String[batch];
+        int n;
+        while ((n = reader.read(into)) > 0) {
+            names.addAll(Arrays.asList(into).subList(0, n));
+        }
+        return names;
+    }
+}
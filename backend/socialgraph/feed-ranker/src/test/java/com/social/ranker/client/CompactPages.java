@@ -0,0 +1,51 @@
+package com.social.ranker.client;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/** Encodes follower pages exactly like user-service's {@code CompactFollowerCodec}. */
+public final class CompactPages {
+
+    private CompactPages() {
+    }
+
+    public static byte[] encode(List<String> followers, Long nextCursor, Long total, boolean gzip) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write('F');
+        bytes.write(gzip ? 1 : 0);
+        try (OutputStream body = gzip ? new GZIPOutputStream(bytes) : bytes) {
+            writeVarint(body, followers.size());
+            writeVarint(body, nextCursor == null ? 0 : nextCursor + 1);
+            writeVarint(body, total == null ? 0 : total + 1);
+            byte[] previous = new byte[0];
+            for (String follower : followers.stream().sorted().toList()) {
+                byte[] current = follower.getBytes(StandardCharsets.UTF_8);
+                int shared = 0;
+                int max = Math.min(previous.length, current.length);
+                while (shared < max && previous[shared] == current[shared]) {
+                    shared++;
+                }
+                writeVarint(body, shared);
+                writeVarint(body, current.length - shared);
+                body.write(current, shared, current.length - shared);
+                previous = current;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeVarint(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
@@ -0,0 +1,116 @@
+package com.social.ranker.service;
+
+import com.social.ranker.kafka.PostEvent;
+import com.social.ranker.store.FeedShards;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FanoutConcurrencyControllerTest {
+
+    private final KafkaListenerEndpointRegistry registry = mock(KafkaListenerEndpointRegistry.class);
+    private final ConsumerLagReader lagReader = mock(ConsumerLagReader.class);
+    private final StringRedisTemplate redis = mock(StringRedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ConsumerFactory<String, PostEvent> consumerFactory = mock(ConsumerFactory.class);
+    private final RedisLatency redisLatency = new RedisLatency();
+    private final FanoutExecutor fanoutExecutor = new FanoutExecutor(mock(FeedWriteCombiner.class), 8);
+    private FanoutConcurrencyController controller;
+
+    @BeforeEach
+    void setUp() {
+        FeedShards shards = mock(FeedShards.class);
+        when(shards.size()).thenReturn(1);
+        when(shards.template(0)).thenReturn(redis);
+        controller = new FanoutConcurrencyController(registry, lagReader, redisLatency, fanoutExecutor, shards,
+                consumerFactory, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(controller, "enabled", true);
+        ReflectionTestUtils.setField(controller, "minConcurrency", 3);
+        ReflectionTestUtils.setField(controller, "maxConcurrency", 12);
+        ReflectionTestUtils.setField(controller, "minPollRecords", 50);
+        ReflectionTestUtils.setField(controller, "maxPollRecords", 500);
+        ReflectionTestUtils.setField(controller, "minInFlight", 2);
+        ReflectionTestUtils.setField(controller, "maxInFlight", 32);
+        ReflectionTestUtils.setField(controller, "scaleUpLag", 5000L);
+        ReflectionTestUtils.setField(controller, "scaleDownLag", 100L);
+        ReflectionTestUtils.setField(controller, "pauseLatencyMs", 50.0);
+        ReflectionTestUtils.setField(controller, "resumeLatencyMs", 20.0);
+        ReflectionTestUtils.setField(controller, "restartCooldownMs", 0L);
+    }
+
+    @Test
+    void pausedFanoutResumesOnceRedisAnswersPingsQuickly() {
+        MessageListenerContainer container = runningContainer("post-created");
+        redisLatency.record(100_000_000L);
+
+        controller.adjust();
+        verify(container).pause();
+
+        for (int i = 0; i < 20 && (boolean) controller.settings().get("paused"); i++) {
+            controller.adjust();
+        }
+        verify(container).resume();
+        assertEquals(false, controller.settings().get("paused"));
+    }
+
+    @Test
+    void staysPausedWhileAShardDoesNotAnswer() {
+        MessageListenerContainer container = runningContainer("post-created");
+        when(redis.execute(any(RedisCallback.class))).thenThrow(new RedisConnectionFailureException("down"));
+        redisLatency.record(100_000_000L);
+
+        for (int i = 0; i < 20; i++) {
+            controller.adjust();
+        }
+        verify(container, never()).resume();
+        assertEquals(true, controller.settings().get("paused"));
+    }
+
+    @Test
+    void rescalesFromTheSettingsTheContainerWasCreatedWith() throws Exception {
+        ConcurrentMessageListenerContainer<?, ?> container = mock(ConcurrentMessageListenerContainer.class);
+        ContainerProperties properties = new ContainerProperties("post-created");
+        when(container.getConcurrency()).thenReturn(4);
+        when(container.getContainerProperties()).thenReturn(properties);
+        when(container.isRunning()).thenReturn(true);
+        when(registry.getListenerContainer(anyString())).thenReturn(null);
+        when(registry.getListenerContainer("post-created")).thenAnswer(invocation -> container);
+        when(consumerFactory.getConfigurationProperties())
+                .thenReturn(Map.of(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 100));
+        when(lagReader.lag("feed-ranker-group", "post-created")).thenReturn(10_000L);
+
+        controller.adjust();
+
+        verify(container).setConcurrency(8);
+        assertEquals("200", properties.getKafkaConsumerProperties().getProperty(ConsumerConfig.MAX_POLL_RECORDS_CONFIG));
+        assertEquals(8, controller.settings().get("concurrency"));
+    }
+
+    private MessageListenerContainer runningContainer(String id) {
+        MessageListenerContainer container = mock(MessageListenerContainer.class);
+        when(container.isRunning()).thenReturn(true);
+        when(registry.getListenerContainer(anyString())).thenReturn(null);
+        when(registry.getListenerContainer(id)).thenReturn(container);
+        return container;
+    }
+}
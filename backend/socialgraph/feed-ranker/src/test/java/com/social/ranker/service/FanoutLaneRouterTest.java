@@ -0,0 +1,85 @@
+package com.social.ranker.service;
+
+import com.social.ranker.client.UserServiceClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FanoutLaneRouterTest {
+
+    private final UserServiceClient userService = mock(UserServiceClient.class);
+    private final FollowerCache followerCache = new FollowerCache(100, 10_000, Duration.ofMinutes(5),
+            new SimpleMeterRegistry());
+    private FanoutLaneRouter router;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        router = new FanoutLaneRouter(userService, followerCache, mock(KafkaTemplate.class), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(router, "smallMaxFollowers", 1000L);
+        ReflectionTestUtils.setField(router, "chunkThreshold", 5000L);
+        ReflectionTestUtils.setField(router, "pullThreshold", 10_000L);
+    }
+
+    @Test
+    void lanesFollowTheConsumersThresholds() {
+        assertEquals(FanoutLane.SMALL, laneOf(1000));
+        assertEquals(FanoutLane.MEDIUM, laneOf(1001));
+        assertEquals(FanoutLane.MEDIUM, laneOf(5000));
+        // chunked by the consumer
+        assertEquals(FanoutLane.HUGE, laneOf(5001));
+        assertEquals(FanoutLane.HUGE, laneOf(10_000));
+        // pull mode: one timeline write
+        assertEquals(FanoutLane.SMALL, laneOf(10_001));
+    }
+
+    @Test
+    void smallLaneNeverTakesAChunkedAuthor() {
+        ReflectionTestUtils.setField(router, "smallMaxFollowers", 8000L);
+
+        assertEquals(FanoutLane.SMALL, laneOf(5000));
+        assertEquals(FanoutLane.HUGE, laneOf(5001));
+    }
+
+    @Test
+    void fetchesTheCountOncePerAuthor() {
+        when(userService.followerCount("alice")).thenReturn(7000L);
+
+        assertEquals(FanoutLane.HUGE, router.laneFor("alice"));
+        assertEquals(FanoutLane.HUGE, router.laneFor("alice"));
+        verify(userService, times(1)).followerCount("alice");
+    }
+
+    @Test
+    void reusesTheCountTheConsumerCached() {
+        followerCache.putCount("alice", 50_000, followerCache.version());
+
+        assertEquals(FanoutLane.SMALL, router.laneFor("alice"));
+        verify(userService, never()).followerCount("alice");
+    }
+
+    @Test
+    void unknownAuthorsGoToTheMediumLane() {
+        when(userService.followerCount("alice")).thenThrow(new ResourceAccessException("down"));
+
+        assertEquals(FanoutLane.MEDIUM, router.laneFor("alice"));
+    }
+
+    private FanoutLane laneOf(long followers) {
+        String author = "author-" + followers;
+        followerCache.putCount(author, followers, followerCache.version());
+        return router.laneFor(author);
+    }
+}
@@ -0,0 +1,109 @@
+package com.social.ranker.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FanoutProgressTest {
+
+    private final StringRedisTemplate redis = mock(StringRedisTemplate.class);
+    private final StringRedisConnection connection = mock(StringRedisConnection.class);
+    private final FeedWriteCombiner combiner = mock(FeedWriteCombiner.class);
+    private FanoutProgress progress;
+
+    @BeforeEach
+    void setUp() {
+        when(redis.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            ((RedisCallback<?>) invocation.getArgument(0)).doInRedis(connection);
+            return Arrays.asList(Set.of("p:2:ab"), null);
+        });
+        progress = new FanoutProgress(redis, combiner, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(progress, "enabled", true);
+        ReflectionTestUtils.setField(progress, "ttl", Duration.ofHours(1));
+    }
+
+    @Test
+    void skipsPostsThatFinishedOrWereChunked() {
+        assertTrue(progress.skipPost(Set.of(FanoutProgress.DONE)));
+        assertTrue(progress.skipPost(Set.of("p:2:ab", FanoutProgress.CHUNKED)));
+        assertFalse(progress.skipPost(Set.of("p:2:ab")));
+    }
+
+    @Test
+    void skipsOnlyPagesAlreadyRecorded() {
+        String written = FanoutProgress.pageMember(List.of("alice", "bob"));
+
+        assertTrue(progress.skipPage(Set.of(written), FanoutProgress.pageMember(List.of("alice", "bob"))));
+        assertFalse(progress.skipPage(Set.of(written), FanoutProgress.pageMember(List.of("alice", "carol"))));
+    }
+
+    @Test
+    void pageFingerprintDependsOnEveryFollowerAndTheirOrder() {
+        String page = FanoutProgress.pageMember(List.of("alice", "bob"));
+
+        assertTrue(page.startsWith("p:2:"));
+        assertNotEquals(page, FanoutProgress.pageMember(List.of("bob", "alice")));
+        assertNotEquals(page, FanoutProgress.pageMember(List.of("alic", "ebob")));
+        assertNotEquals(page, FanoutProgress.pageMember(List.of("alice")));
+    }
+
+    @Test
+    void loadsCheckpointsInPostOrder() {
+        List<Set<String>> loaded = progress.load(List.of(1L, 2L));
+
+        assertEquals(List.of(Set.of("p:2:ab"), Set.of()), loaded);
+        verify(connection).sMembers("fanout:progress:1");
+        verify(connection).sMembers("fanout:progress:2");
+    }
+
+    @Test
+    void recordsWithATtl() {
+        progress.record(List.of(1L), FanoutProgress.DONE);
+
+        verify(connection).sAdd("fanout:progress:1", FanoutProgress.DONE);
+        verify(connection).expire("fanout:progress:1", 3600L);
+    }
+
+    @Test
+    void recordWaitsForTheCombinedWritesToBeFlushed() {
+        when(combiner.defer(any())).thenReturn(true);
+
+        progress.record(List.of(1L), "p:2:ab");
+
+        verify(redis, never()).executePipelined(any(RedisCallback.class));
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(combiner).defer(task.capture());
+        task.getValue().run();
+        verify(connection).sAdd("fanout:progress:1", "p:2:ab");
+    }
+
+    @Test
+    void disabledProgressNeitherLoadsNorRecords() {
+        ReflectionTestUtils.setField(progress, "enabled", false);
+
+        assertEquals(List.of(Set.of(), Set.of()), progress.load(List.of(1L, 2L)));
+        progress.record(List.of(1L), FanoutProgress.DONE);
+
+        verify(redis, never()).executePipelined(any(RedisCallback.class));
+    }
+}
@@ -0,0 +1,166 @@
+package com.social.ranker.service;
+
+import com.social.ranker.store.FeedKeys;
+import com.social.ranker.store.FeedShards;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FanoutWriterTest {
+
+    private final StringRedisTemplate redis = mock(StringRedisTemplate.class);
+    private final StringRedisConnection connection = mock(StringRedisConnection.class);
+    private final FeedTrimPolicy trimPolicy = new FeedTrimPolicy();
+    private final List<String[]> scriptCalls = new ArrayList<>();
+    private FanoutWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        FeedShards shards = mock(FeedShards.class);
+        when(shards.size()).thenReturn(1);
+        when(shards.template(0)).thenReturn(redis);
+        when(redis.execute(any(RedisCallback.class)))
+                .thenAnswer(invocation -> ((RedisCallback<?>) invocation.getArgument(0)).doInRedis(connection));
+        when(redis.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            ((RedisCallback<?>) invocation.getArgument(0)).doInRedis(connection);
+            return List.of();
+        });
+        when(connection.scriptLoad(anyString())).thenReturn("sha");
+        when(connection.evalSha(eq("sha"), eq(ReturnType.INTEGER), anyInt(), any(String[].class))).thenAnswer(invocation -> {
+            scriptCalls.add((String[]) invocation.getRawArguments()[3]);
+            return 0L;
+        });
+
+        FeedWriteCombiner combiner = mock(FeedWriteCombiner.class);
+        writer = new FanoutWriter(redis, combiner, new RedisLatency(), trimPolicy, new FeedKeys("string"), shards,
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(writer, "chunkSize", 2);
+        ReflectionTestUtils.setField(trimPolicy, "maxFeedSize", 100);
+        ReflectionTestUtils.setField(trimPolicy, "softLimit", 150);
+        trimMode("lazy", 0.0);
+    }
+
+    @Test
+    void scriptGetsTheCapAndTheSoftLimit() {
+        writeMode("lua");
+
+        writer.write("p1", List.of("alice", "bob"), new double[] {1.5, 2.5});
+
+        assertEquals(1, scriptCalls.size());
+        assertEquals(List.of("feed:alice", "feed:bob", "p1", "100", "150", "1.5", "2.5"),
+                Arrays.asList(scriptCalls.get(0)));
+    }
+
+    @Test
+    void scriptTrimsAtTheCapWhenEveryInsertMustTrim() {
+        writeMode("lua");
+        trimMode("always", 0.0);
+
+        writer.write("p1", List.of("alice"), new double[] {1.0});
+
+        assertEquals("100", scriptCalls.get(0)[3]);
+    }
+
+    @Test
+    void softLimitIsNeverBelowTheCap() {
+        writeMode("lua");
+        ReflectionTestUtils.setField(trimPolicy, "softLimit", 50);
+
+        writer.write("p1", List.of("alice"), new double[] {1.0});
+
+        assertEquals("100", scriptCalls.get(0)[3]);
+    }
+
+    @Test
+    void writesInChunksOfTheConfiguredSize() {
+        writeMode("lua");
+
+        int written = writer.write("p1", List.of("a", "b", "c", "d", "e"), new double[] {1, 2, 3, 4, 5});
+
+        assertEquals(5, written);
+        assertEquals(3, scriptCalls.size());
+        assertEquals(List.of("feed:e", "p1", "100", "150", "5.0"), Arrays.asList(scriptCalls.get(2)));
+    }
+
+    @Test
+    void pipelineTrimsEveryInsertBackToTheCap() {
+        writeMode("pipeline");
+        trimMode("always", 0.0);
+
+        writer.write("p1", List.of("alice", "bob"), new double[] {1.0, 2.0});
+
+        verify(connection).zAdd("feed:alice", 1.0, "p1");
+        verify(connection).zAdd("feed:bob", 2.0, "p1");
+        verify(connection).zRemRange("feed:alice", 0, -101);
+        verify(connection).zRemRange("feed:bob", 0, -101);
+    }
+
+    @Test
+    void lazyPipelineTrimsOnlyAsOftenAsTheProbabilitySays() {
+        writeMode("pipeline");
+
+        writer.write("p1", List.of("alice", "bob"), new double[] {1.0, 2.0});
+        verify(connection, never()).zRemRange(anyString(), anyLong(), anyLong());
+
+        trimMode("lazy", 1.0);
+        writer.write("p2", List.of("alice"), new double[] {1.0});
+        verify(connection, times(1)).zRemRange("feed:alice", 0, -101);
+    }
+
+    @Test
+    void fallsBackToThePipelineWhenTheScriptIsNotCached() {
+        writeMode("lua");
+        trimMode("always", 0.0);
+        when(connection.evalSha(eq("sha"), eq(ReturnType.INTEGER), anyInt(), any(String[].class)))
+                .thenThrow(new RedisSystemException("NOSCRIPT No matching script", null));
+
+        int written = writer.write("p1", List.of("alice"), new double[] {1.0});
+
+        assertEquals(1, written);
+        verify(connection).zAdd("feed:alice", 1.0, "p1");
+        verify(connection).zRemRange("feed:alice", 0, -101);
+    }
+
+    @Test
+    void buffersInsteadOfWritingInsideACombiningScope() {
+        FeedWriteCombiner combiner = mock(FeedWriteCombiner.class);
+        when(combiner.add(anyString(), any(), any())).thenReturn(true);
+        FeedShards shards = mock(FeedShards.class);
+        FanoutWriter combining = new FanoutWriter(redis, combiner, new RedisLatency(), trimPolicy,
+                new FeedKeys("string"), shards, new SimpleMeterRegistry());
+
+        assertEquals(2, combining.write("p1", List.of("alice", "bob"), new double[] {1.0, 2.0}));
+        verify(redis, never()).executePipelined(any(RedisCallback.class));
+    }
+
+    private void writeMode(String mode) {
+        ReflectionTestUtils.setField(writer, "mode", mode);
+    }
+
+    private void trimMode(String mode, double probability) {
+        ReflectionTestUtils.setField(trimPolicy, "mode", mode);
+        ReflectionTestUtils.setField(trimPolicy, "probability", probability);
+    }
+}
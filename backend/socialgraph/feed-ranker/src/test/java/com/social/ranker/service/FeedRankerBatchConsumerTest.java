@@ -0,0 +1,91 @@
+package com.social.ranker.service;
+
+import com.social.ranker.kafka.PostEvent;
+import com.social.ranker.store.FeedKeys;
+import com.social.ranker.store.FeedShards;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FeedRankerBatchConsumerTest {
+
+    private final FeedRankerConsumer consumer = mock(FeedRankerConsumer.class);
+    private final StringRedisTemplate redis = mock(StringRedisTemplate.class);
+    private final Acknowledgment ack = mock(Acknowledgment.class);
+    private FeedWriteCombiner combiner;
+    private FeedRankerBatchConsumer batchConsumer;
+
+    @BeforeEach
+    void setUp() {
+        FeedShards shards = mock(FeedShards.class);
+        when(shards.size()).thenReturn(1);
+        when(shards.template(0)).thenReturn(redis);
+        combiner = new FeedWriteCombiner(shards, new RedisLatency(), mock(FeedTrimPolicy.class), new FeedKeys("string"),
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(combiner, "enabled", true);
+        ReflectionTestUtils.setField(combiner, "windowMs", 60_000L);
+        ReflectionTestUtils.setField(combiner, "maxTuples", 1000);
+        batchConsumer = new FeedRankerBatchConsumer(consumer, combiner);
+        // Each author's fan-out buffers one feed write.
+        doAnswer(invocation -> combiner.add("p", List.of("follower-of-" + invocation.getArgument(0)), new double[] {1.0}))
+                .when(consumer).processAuthorEvents(anyString(), anyList());
+    }
+
+    @Test
+    void acknowledgesOnceEverythingIsFlushed() {
+        batchConsumer.onBatch(List.of(event("alice"), event("bob")), ack);
+
+        verify(redis).executePipelined(any(RedisCallback.class));
+        verify(ack).acknowledge();
+    }
+
+    @Test
+    void failedFinalFlushRedeliversEveryBufferedAuthor() {
+        when(redis.executePipelined(any(RedisCallback.class))).thenThrow(new RedisConnectionFailureException("down"));
+
+        BatchListenerFailedException e = assertThrows(BatchListenerFailedException.class,
+                () -> batchConsumer.onBatch(List.of(event("alice"), event("bob")), ack));
+
+        assertEquals(0, e.getIndex());
+        verify(ack, never()).acknowledge();
+    }
+
+    @Test
+    void failedAuthorIsRedeliveredWithTheUnflushedAuthorsBeforeIt() {
+        doThrow(new IllegalStateException("user-service down")).when(consumer).processAuthorEvents(eq("carol"), anyList());
+        when(redis.executePipelined(any(RedisCallback.class))).thenThrow(new RedisConnectionFailureException("down"));
+
+        BatchListenerFailedException e = assertThrows(BatchListenerFailedException.class,
+                () -> batchConsumer.onBatch(List.of(event("alice"), event("bob"), event("carol")), ack));
+
+        assertEquals(0, e.getIndex());
+    }
+
+    private static PostEvent event(String author) {
+        PostEvent evt = new PostEvent();
+        evt.setPostId((long) author.hashCode());
+        evt.setAuthorId(author);
+        return evt;
+    }
+}
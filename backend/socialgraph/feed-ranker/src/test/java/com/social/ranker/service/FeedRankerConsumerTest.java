@@ -0,0 +1,174 @@
+package com.social.ranker.service;
+
+import com.social.ranker.affinity.AffinityEngine;
+import com.social.ranker.client.CompactPages;
+import com.social.ranker.client.UserServiceClient;
+import com.social.ranker.kafka.PostEvent;
+import com.social.ranker.store.FeedStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FeedRankerConsumerTest {
+
+    private static final int PAGE_SIZE = 1000;
+    private static final List<String> FOLLOWERS = IntStream.range(0, 2500)
+            .mapToObj(i -> String.format("f%04d", i)).toList();
+
+    private final RestTemplate rest = mock(RestTemplate.class);
+    private final StringRedisTemplate redis = mock(StringRedisTemplate.class);
+    private final FeedStore feedStore = mock(FeedStore.class);
+    // Stand-in for the checkpoint sets in Redis.
+    private final Map<String, Set<String>> sets = new HashMap<>();
+    private final List<String> written = new ArrayList<>();
+    private final FollowerCache followerCache = new FollowerCache(100, 10_000, Duration.ofMinutes(5), new SimpleMeterRegistry());
+    private FeedRankerConsumer consumer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        UserServiceClient userService = new UserServiceClient(rest);
+        ReflectionTestUtils.setField(userService, "baseUrl", "http://user-service");
+        ReflectionTestUtils.setField(userService, "transport", "compact");
+        ReflectionTestUtils.setField(userService, "batchSize", 500);
+        when(rest.execute(anyString(), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class)))
+                .thenAnswer(invocation -> {
+                    String url = invocation.getArgument(0);
+                    int from = url.contains("after=") ? Integer.parseInt(url.substring(url.indexOf("after=") + 6)) : 0;
+                    int to = Math.min(from + PAGE_SIZE, FOLLOWERS.size());
+                    byte[] body = CompactPages.encode(FOLLOWERS.subList(from, to),
+                            to < FOLLOWERS.size() ? (long) to : null, from == 0 ? (long) FOLLOWERS.size() : null, false);
+                    ClientHttpResponse response = mock(ClientHttpResponse.class);
+                    when(response.getBody()).thenReturn(new ByteArrayInputStream(body));
+                    return ((ResponseExtractor<?>) invocation.getArgument(3)).extractData(response);
+                });
+
+        StringRedisConnection connection = mock(StringRedisConnection.class);
+        List<Object> replies = new ArrayList<>();
+        when(connection.sMembers(anyString())).thenAnswer(invocation -> {
+            replies.add(new HashSet<>(sets.getOrDefault(invocation.<String>getArgument(0), Set.of())));
+            return null;
+        });
+        when(connection.sAdd(anyString(), any(String[].class))).thenAnswer(invocation -> {
+            sets.computeIfAbsent(invocation.getArgument(0), k -> new HashSet<>()).add(invocation.getArgument(1));
+            replies.add(1L);
+            return null;
+        });
+        when(redis.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            replies.clear();
+            ((RedisCallback<?>) invocation.getArgument(0)).doInRedis(connection);
+            return new ArrayList<>(replies);
+        });
+
+        FeedWriteCombiner combiner = mock(FeedWriteCombiner.class);
+        FanoutProgress progress = new FanoutProgress(redis, combiner, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(progress, "enabled", true);
+        ReflectionTestUtils.setField(progress, "ttl", Duration.ofHours(1));
+
+        consumer = new FeedRankerConsumer(userService, mock(FanoutWriter.class), feedStore, followerCache,
+                mock(AffinityEngine.class), mock(KafkaTemplate.class), progress, new FanoutExecutor(combiner, 8),
+                mock(PostSnapshots.class));
+        ReflectionTestUtils.setField(consumer, "pullThreshold", 10_000);
+        ReflectionTestUtils.setField(consumer, "followerPageSize", PAGE_SIZE);
+        ReflectionTestUtils.setField(consumer, "chunkThreshold", 5000);
+        ReflectionTestUtils.setField(consumer, "chunkFollowers", 5000);
+        ReflectionTestUtils.setField(consumer, "scoringMode", "stored");
+    }
+
+    @Test
+    void fetchedWalkRetriesOnlyThePageThatFailedOnTheCachedWalk() {
+        followerCache.put("alice", FOLLOWERS, followerCache.version());
+        failOnceOnPageStarting("f2000");
+
+        assertThrows(RuntimeException.class, () -> consumer.processAuthorEvents("alice", List.of(post(1L))));
+        assertEquals(List.of("f0000", "f1000", "f2000"), written);
+
+        // The retry walks user-service instead, in compact pages decoded 500 at a time.
+        followerCache.invalidate("alice");
+        written.clear();
+        consumer.processAuthorEvents("alice", List.of(post(1L)));
+
+        assertEquals(List.of("f2000"), written);
+        assertTrue(sets.get(FanoutProgress.key(1L)).contains(FanoutProgress.DONE));
+    }
+
+    @Test
+    void cachedWalkRetriesOnlyThePageThatFailedOnTheFetchedWalk() {
+        failOnceOnPageStarting("f1000");
+
+        assertThrows(RuntimeException.class, () -> consumer.processAuthorEvents("alice", List.of(post(1L))));
+        assertEquals(List.of("f0000", "f1000"), written);
+
+        followerCache.put("alice", FOLLOWERS, followerCache.version());
+        written.clear();
+        consumer.processAuthorEvents("alice", List.of(post(1L)));
+
+        assertEquals(List.of("f1000", "f2000"), written);
+    }
+
+    @Test
+    void rejectsChunksLargerThanUserServiceServes() {
+        ReflectionTestUtils.setField(consumer, "chunkFollowers", FeedRankerConsumer.MAX_CHUNK_FOLLOWERS + 1);
+
+        assertThrows(IllegalStateException.class, consumer::checkChunkFollowers);
+    }
+
+    @Test
+    void batchFallbackPassesTheFailureOnToTheListener() {
+        // Swallowing it would let the batch listener acknowledge posts that were never fanned out.
+        assertThrows(IllegalStateException.class, () -> consumer.fallbackAuthorEvents("alice", List.of(post(1L)),
+                new ResourceAccessException("user-service down")));
+    }
+
+    private void failOnceOnPageStarting(String first) {
+        boolean[] failed = {false};
+        when(feedStore.add(anyString(), anyList(), any(double[].class))).thenAnswer(invocation -> {
+            List<String> followers = invocation.getArgument(1);
+            written.add(followers.get(0));
+            if (followers.get(0).equals(first) && !failed[0]) {
+                failed[0] = true;
+                throw new IllegalStateException("Redis write failed");
+            }
+            return followers.size();
+        });
+    }
+
+    private static PostEvent post(long postId) {
+        PostEvent evt = new PostEvent();
+        evt.setPostId(postId);
+        evt.setAuthorId("alice");
+        evt.setTimestamp(Instant.now().toEpochMilli());
+        return evt;
+    }
+}
@@ -0,0 +1,167 @@
+package com.social.ranker.service;
+
+import com.social.ranker.store.FeedKeys;
+import com.social.ranker.store.FeedShards;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.StringRedisConnection.StringTuple;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FeedWriteCombinerTest {
+
+    private final FeedShards shards = mock(FeedShards.class);
+    private final FeedTrimPolicy trimPolicy = mock(FeedTrimPolicy.class);
+    private final StringRedisTemplate[] templates = {mock(StringRedisTemplate.class), mock(StringRedisTemplate.class)};
+    private final StringRedisConnection[] connections = {mock(StringRedisConnection.class), mock(StringRedisConnection.class)};
+    private FeedWriteCombiner combiner;
+
+    @BeforeEach
+    void setUp() {
+        when(shards.size()).thenReturn(2);
+        // alice's feed lives on shard 0, everyone else's on shard 1
+        when(shards.shardOf(anyString())).thenAnswer(invocation -> "feed:alice".equals(invocation.getArgument(0)) ? 0 : 1);
+        for (int shard = 0; shard < 2; shard++) {
+            StringRedisConnection connection = connections[shard];
+            when(shards.template(shard)).thenReturn(templates[shard]);
+            when(templates[shard].executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+                ((RedisCallback<?>) invocation.getArgument(0)).doInRedis(connection);
+                return List.of();
+            });
+        }
+        when(trimPolicy.maxFeedSize()).thenReturn(100);
+        combiner = new FeedWriteCombiner(shards, new RedisLatency(), trimPolicy, new FeedKeys("string"),
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(combiner, "enabled", true);
+        ReflectionTestUtils.setField(combiner, "windowMs", 60_000L);
+        ReflectionTestUtils.setField(combiner, "maxTuples", 1000);
+        combiner.begin();
+    }
+
+    @AfterEach
+    void tearDown() {
+        combiner.end();
+    }
+
+    @Test
+    void writesNothingOutsideAScope() {
+        combiner.end();
+
+        assertFalse(combiner.add("p1", List.of("alice"), new double[] {1.0}));
+        assertFalse(combiner.defer(() -> { }));
+    }
+
+    @Test
+    void buffersUntilFlushThenWritesOneZaddPerFeedOnItsShard() {
+        combiner.add("p1", List.of("alice", "bob"), new double[] {1.0, 2.0});
+        combiner.add("p2", List.of("alice"), new double[] {3.0});
+
+        verify(templates[0], never()).executePipelined(any(RedisCallback.class));
+        assertTrue(combiner.pending());
+
+        combiner.flush();
+
+        assertEquals(Set.of("p1", "p2"), members(connections[0], "feed:alice"));
+        assertEquals(Set.of("p1"), members(connections[1], "feed:bob"));
+        verify(connections[0], never()).zAdd(eq("feed:bob"), any(Set.class));
+        assertFalse(combiner.pending());
+    }
+
+    @Test
+    void collapsesRepeatedWritesOfAPost() {
+        combiner.add("p1", List.of("alice"), new double[] {1.0});
+        combiner.add("p1", List.of("alice"), new double[] {1.0});
+        combiner.flush();
+
+        ArgumentCaptor<Set<StringTuple>> tuples = ArgumentCaptor.forClass(Set.class);
+        verify(connections[0]).zAdd(eq("feed:alice"), tuples.capture());
+        assertEquals(1, tuples.getValue().size());
+    }
+
+    @Test
+    void trimsOnlyWhenThePolicySaysSo() {
+        when(trimPolicy.trimOnInsert()).thenReturn(false, true);
+        combiner.add("p1", List.of("alice"), new double[] {1.0});
+        combiner.flush();
+        combiner.add("p2", List.of("alice"), new double[] {1.0});
+        combiner.flush();
+
+        verify(connections[0], times(1)).zRemRange("feed:alice", 0, -101);
+    }
+
+    @Test
+    void flushesWhenTheTupleLimitIsReached() {
+        ReflectionTestUtils.setField(combiner, "maxTuples", 2);
+        combiner.add("p1", List.of("alice", "bob", "carol"), new double[] {1.0, 1.0, 1.0});
+
+        verify(templates[0]).executePipelined(any(RedisCallback.class));
+        assertTrue(combiner.pending());
+    }
+
+    @Test
+    void defersWorkUntilTheBufferedWritesAreFlushed() {
+        AtomicInteger ran = new AtomicInteger();
+        combiner.defer(ran::incrementAndGet);
+        assertEquals(1, ran.get());
+
+        combiner.add("p1", List.of("alice"), new double[] {1.0});
+        combiner.defer(ran::incrementAndGet);
+        assertEquals(1, ran.get());
+
+        combiner.flush();
+        assertEquals(2, ran.get());
+    }
+
+    @Test
+    void failedFlushDropsBufferAndDeferredWork() {
+        when(templates[1].executePipelined(any(RedisCallback.class)))
+                .thenThrow(new RedisConnectionFailureException("down"))
+                .thenAnswer(invocation -> {
+                    ((RedisCallback<?>) invocation.getArgument(0)).doInRedis(connections[1]);
+                    return List.of();
+                });
+        AtomicInteger ran = new AtomicInteger();
+        combiner.add("p1", List.of("bob"), new double[] {1.0});
+        combiner.defer(ran::incrementAndGet);
+
+        assertThrows(RedisConnectionFailureException.class, combiner::flush);
+        assertFalse(combiner.pending());
+        assertEquals(0, ran.get());
+
+        combiner.add("p2", List.of("bob"), new double[] {1.0});
+        combiner.flush();
+        assertEquals(Set.of("p2"), members(connections[1], "feed:bob"));
+        assertEquals(0, ran.get());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<String> members(StringRedisConnection connection, String key) {
+        ArgumentCaptor<Set<StringTuple>> tuples = ArgumentCaptor.forClass(Set.class);
+        verify(connection).zAdd(eq(key), tuples.capture());
+        return tuples.getValue().stream().map(StringTuple::getValueAsString).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,86 @@
+package com.social.ranker.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class FollowerCacheTest {
+
+    private final FollowerCache cache = new FollowerCache(2, 10, Duration.ofMinutes(5), new SimpleMeterRegistry());
+
+    @Test
+    void invalidateDropsTheList() {
+        cache.put("alice", List.of("bob"), cache.version());
+        cache.invalidate("alice");
+
+        assertNull(cache.get("alice"));
+    }
+
+    @Test
+    void listFetchedBeforeAnInvalidationIsNotCached() {
+        long fetchedAt = cache.version();
+        cache.invalidate("alice");
+        cache.put("alice", List.of("bob"), fetchedAt);
+
+        assertNull(cache.get("alice"));
+    }
+
+    @Test
+    void listFetchedAfterAnInvalidationIsCached() {
+        cache.invalidate("alice");
+        cache.put("alice", List.of("bob", "carol"), cache.version());
+
+        assertEquals(List.of("bob", "carol"), cache.get("alice"));
+    }
+
+    @Test
+    void invalidationOfAnotherAuthorDoesNotDropTheFetch() {
+        long fetchedAt = cache.version();
+        cache.invalidate("dave");
+        cache.put("alice", List.of("bob"), fetchedAt);
+
+        assertEquals(List.of("bob"), cache.get("alice"));
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedAuthor() {
+        cache.put("alice", List.of("a"), cache.version());
+        cache.put("bob", List.of("b"), cache.version());
+        cache.get("alice");
+        cache.put("carol", List.of("c"), cache.version());
+
+        assertEquals(List.of("a"), cache.get("alice"));
+        assertNull(cache.get("bob"));
+    }
+
+    @Test
+    void skipsListsAboveTheSizeLimit() {
+        cache.put("alice", List.of("1", "2", "3", "4", "5", "6", "7", "8", "9", "10", "11"), cache.version());
+
+        assertNull(cache.get("alice"));
+    }
+
+    @Test
+    void countOfAListTooLargeToKeepIsCached() {
+        cache.putCount("alice", 50_000, cache.version());
+
+        assertNull(cache.get("alice"));
+        assertEquals(50_000L, cache.count("alice"));
+        cache.invalidate("alice");
+        assertNull(cache.count("alice"));
+    }
+
+    @Test
+    void countDoesNotReplaceACachedList() {
+        cache.put("alice", List.of("bob", "carol"), cache.version());
+        cache.putCount("alice", 2, cache.version());
+
+        assertEquals(List.of("bob", "carol"), cache.get("alice"));
+        assertEquals(2L, cache.count("alice"));
+    }
+}
@@ -0,0 +1,27 @@
+package com.social.ranker.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RedisLatencyTest {
+
+    @Test
+    void averagesPipelineSamplesPerCommand() {
+        RedisLatency latency = new RedisLatency();
+
+        // a 500-command pipeline taking 100 ms is as healthy as a 0.2 ms PING
+        latency.record(100_000_000L, 500);
+        assertEquals(0.2, latency.millis(), 1e-9);
+        latency.record(200_000L);
+        assertEquals(0.2, latency.millis(), 1e-9);
+    }
+
+    @Test
+    void treatsAnEmptyPipelineAsOneCommand() {
+        RedisLatency latency = new RedisLatency();
+
+        latency.record(1_000_000L, 0);
+        assertEquals(1.0, latency.millis(), 1e-9);
+    }
+}
@@ -0,0 +1,101 @@
+package com.social.ranker.store;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class FeedShardsTest {
+
+    private static final List<String> KEYS = IntStream.range(0, 20_000).mapToObj(i -> "feed:user-" + i).toList();
+
+    private final StringRedisTemplate defaultRedis = mock(StringRedisTemplate.class);
+    private final List<FeedShards> opened = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        opened.forEach(FeedShards::close);
+    }
+
+    @Test
+    void withoutNodesEveryKeyStaysOnTheDefaultRedis() {
+        FeedShards shards = shards("");
+
+        assertEquals(1, shards.size());
+        assertEquals(0, shards.shardOf("feed:alice"));
+        assertSame(defaultRedis, shards.forKey("feed:alice"));
+    }
+
+    @Test
+    void everyInstanceBuildsTheSameRing() {
+        FeedShards first = shards("redis-a:6379,redis-b:6379,redis-c:6379");
+        FeedShards second = shards("redis-c:6379,redis-a:6379,redis-b:6379");
+
+        for (String key : KEYS) {
+            assertEquals(first.node(first.shardOf(key)), second.node(second.shardOf(key)), key);
+        }
+    }
+
+    @Test
+    void addingANodeOnlyMovesKeysOntoIt() {
+        FeedShards before = shards("redis-a:6379,redis-b:6379,redis-c:6379");
+        FeedShards after = shards("redis-a:6379,redis-b:6379,redis-c:6379,redis-d:6379");
+
+        int moved = 0;
+        for (String key : KEYS) {
+            String from = before.node(before.shardOf(key));
+            String to = after.node(after.shardOf(key));
+            if (!from.equals(to)) {
+                assertEquals("redis-d:6379", to, key);
+                moved++;
+            }
+        }
+        double share = moved / (double) KEYS.size();
+        assertTrue(share > 0.15 && share < 0.35, "moved " + share);
+    }
+
+    @Test
+    void spreadsKeysEvenlyOverTheNodes() {
+        FeedShards shards = shards("redis-a:6379,redis-b:6379,redis-c:6379");
+
+        int[] counts = new int[shards.size()];
+        KEYS.forEach(key -> counts[shards.shardOf(key)]++);
+        for (int count : counts) {
+            double share = count / (double) KEYS.size();
+            assertTrue(share > 0.25 && share < 0.42, "share " + share);
+        }
+    }
+
+    @Test
+    void partitionGroupsKeyPositionsByShard() {
+        FeedShards shards = shards("redis-a:6379,redis-b:6379");
+        String[] keys = KEYS.subList(0, 50).toArray(String[]::new);
+
+        int[][] byShard = shards.partition(keys);
+
+        int total = 0;
+        for (int shard = 0; shard < byShard.length; shard++) {
+            for (int position : byShard[shard]) {
+                assertEquals(shard, shards.shardOf(keys[position]));
+            }
+            total += byShard[shard].length;
+        }
+        assertEquals(keys.length, total);
+        assertArrayEquals(byShard[0], shards.partition(keys)[0]);
+    }
+
+    private FeedShards shards(String nodes) {
+        FeedShards shards = new FeedShards(defaultRedis, nodes, 160);
+        opened.add(shards);
+        return shards;
+    }
+}
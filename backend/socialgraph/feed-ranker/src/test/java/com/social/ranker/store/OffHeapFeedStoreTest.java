@@ -0,0 +1,50 @@
+package com.social.ranker.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OffHeapFeedStoreTest {
+
+    @Test
+    void keepsHighestScoresWithinCapacity() {
+        OffHeapFeedStore store = new OffHeapFeedStore(3);
+        store.add("1", List.of("alice"), new double[]{0.1});
+        store.add("2", List.of("alice"), new double[]{0.9});
+        store.add("3", List.of("alice"), new double[]{0.5});
+        store.add("4", List.of("alice"), new double[]{0.7});
+
+        List<FeedEntry> feed = store.rangeByRank("alice", 0, 10);
+        assertEquals(List.of("2", "4", "3"), feed.stream().map(FeedEntry::postId).toList());
+    }
+
+    @Test
+    void reAddingAPostUpdatesItsScore() {
+        OffHeapFeedStore store = new OffHeapFeedStore(3);
+        store.add("1", List.of("alice", "bob"), new double[]{0.2, 0.2});
+        store.add("2", List.of("alice"), new double[]{0.5});
+        store.add("1", List.of("alice"), new double[]{0.8});
+
+        assertEquals(List.of("1", "2"), store.rangeByRank("alice", 0, 10).stream().map(FeedEntry::postId).toList());
+        assertEquals(0.8, store.rangeByRank("alice", 0, 0).get(0).score());
+        assertEquals(List.of("1"), store.rangeByRank("bob", 0, 10).stream().map(FeedEntry::postId).toList());
+    }
+
+    @Test
+    void rangeByScoreAndTrim() {
+        OffHeapFeedStore store = new OffHeapFeedStore(10);
+        for (int i = 1; i <= 5; i++) {
+            store.add(String.valueOf(i), List.of("alice"), new double[]{i});
+        }
+
+        assertEquals(List.of("3", "2"), store.rangeByScore("alice", 3.5, 0, 2).stream().map(FeedEntry::postId).toList());
+        assertEquals(List.of("2", "1"), store.rangeByScore("alice", 3.0, 1, 5).stream().map(FeedEntry::postId).toList());
+
+        store.trim("alice", 2);
+        assertEquals(List.of("5", "4"), store.rangeByRank("alice", 0, 10).stream().map(FeedEntry::postId).toList());
+        assertTrue(store.rangeByRank("nobody", 0, 10).isEmpty());
+    }
+}
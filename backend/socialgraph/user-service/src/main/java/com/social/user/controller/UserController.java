@@ -1,11 +1,18 @@
 package com.social.user.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.social.user.dto.FollowerPage;
 import com.social.user.entity.User;
 import com.social.user.repository.UserRepository;
 import com.social.user.service.FollowService;
+import com.social.user.util.CompactFollowerCodec;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -14,10 +21,12 @@ public class UserController {
 
   private final UserRepository userRepository;
   private final FollowService followService;
+  private final ObjectMapper objectMapper;
 
-  public UserController(UserRepository userRepository, FollowService followService) {
+  public UserController(UserRepository userRepository, FollowService followService, ObjectMapper objectMapper) {
     this.userRepository = userRepository;
     this.followService = followService;
+    this.objectMapper = objectMapper;
   }
 
   @PostMapping("/create")
@@ -45,6 +54,63 @@ public class UserController {
     return ResponseEntity.ok(followService.followersOf(username));
   }
 
+  @GetMapping("/{username}/followers/page")
+  public ResponseEntity<FollowerPage> followersPage(
+      @PathVariable String username,
+      @RequestParam(required = false) Long after,
+      @RequestParam(defaultValue = "1000") int limit
+  ) {
+    return ResponseEntity.ok(followService.followersPage(username, after, limit));
+  }
+
+  @GetMapping("/{username}/followers/count")
+  public ResponseEntity<Long> followerCount(@PathVariable String username) {
+    return ResponseEntity.ok(followService.followerCount(username));
+  }
+
+  @GetMapping("/{username}/followers/chunks")
+  public ResponseEntity<List<Long>> followerChunks(
+      @PathVariable String username,
+      @RequestParam(defaultValue = "5000") int every
+  ) {
+    try {
+      return ResponseEntity.ok(followService.followerChunkStarts(username, every));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+
+  // Internal transport for feed-ranker, see CompactFollowerCodec for the wire format.
+  @GetMapping(value = "/{username}/followers/compact", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+  public ResponseEntity<byte[]> followersCompact(
+      @PathVariable String username,
+      @RequestParam(required = false) Long after,
+      @RequestParam(defaultValue = "1000") int limit,
+      @RequestParam(defaultValue = "false") boolean gzip
+  ) {
+    FollowerPage page = followService.followersPage(username, after, limit);
+    return ResponseEntity.ok(CompactFollowerCodec.encode(page.getFollowers(), page.getNextCursor(), page.getTotal(), gzip));
+  }
+
+  @GetMapping(value = "/{username}/followers/stream", produces = "application/x-ndjson")
+  public ResponseEntity<StreamingResponseBody> followersStream(
+      @PathVariable String username,
+      @RequestParam(defaultValue = "1000") int pageSize
+  ) {
+    StreamingResponseBody body = out -> followService.forEachFollowerPage(username, pageSize, page -> {
+      try {
+        for (var follower : page) {
+          out.write(objectMapper.writeValueAsBytes(follower));
+          out.write('\n');
+        }
+        out.flush();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+    return ResponseEntity.ok(body);
+  }
+
   @GetMapping("/{username}/following")
   public ResponseEntity<List<String>> following(@PathVariable String username) {
     return ResponseEntity.ok(followService.followingOf(username));
@@ -0,0 +1,32 @@
+package com.social.user.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class FollowerPage {
+    private List<String> followers;
+    private Long nextCursor;
+    private Long total;
+
+    public FollowerPage(List<String> followers, Long nextCursor, Long total) {
+        this.followers = followers;
+        this.nextCursor = nextCursor;
+        this.total = total;
+    }
+
+    public List<String> getFollowers() {
+        return followers;
+    }
+
+    /** Internal node id to pass as {@code after} for the next page, or null on the last page. */
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+
+    /** Total follower count, only filled in on the first page. */
+    public Long getTotal() {
+        return total;
+    }
+}
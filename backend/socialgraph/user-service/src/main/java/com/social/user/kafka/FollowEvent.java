@@ -0,0 +1,19 @@
+package com.social.user.kafka;
+
+public class FollowEvent {
+  public static final String FOLLOW = "FOLLOW";
+
+  private String follower;
+  private String followee;
+  private String type;
+  private long timestamp;
+
+  public FollowEvent() {}
+  public FollowEvent(String follower, String followee, String type, long timestamp) {
+    this.follower = follower; this.followee = followee; this.type = type; this.timestamp = timestamp;
+  }
+  public String getFollower() { return follower; }
+  public String getFollowee() { return followee; }
+  public String getType() { return type; }
+  public long getTimestamp() { return timestamp; }
+}
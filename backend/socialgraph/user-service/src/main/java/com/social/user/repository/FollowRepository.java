@@ -13,7 +13,8 @@ public interface FollowRepository extends Neo4jRepository<FollowNode, Long> {
 
   @Query("MERGE (u:UserNode {username: $from}) " +
          "MERGE (v:UserNode {username: $to}) " +
-         "MERGE (u)-[:FOLLOWS]->(v) " +
+         "MERGE (u)-[r:FOLLOWS]->(v) " +
+         "ON CREATE SET r.followee = id(v), r.follower = id(u) " +
          "RETURN u")
   FollowNode createFollow(String from, String to);
 
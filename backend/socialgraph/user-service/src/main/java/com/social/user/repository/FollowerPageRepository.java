@@ -0,0 +1,125 @@
+package com.social.user.repository;
+
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keyset-paginated follower reads. Every {@code FOLLOWS} edge carries the node ids of its
+ * followee and follower ({@code r.followee}, {@code r.follower}) under a composite range index,
+ * so a page is an index seek to the cursor followed by {@code limit} entries in follower order:
+ * its cost depends on the page size, not on the follower count or the cursor position. The
+ * index is created, and edges written before it existed are backfilled, on first use.
+ */
+@Repository
+public class FollowerPageRepository {
+
+  private static final Logger logger = LoggerFactory.getLogger(FollowerPageRepository.class);
+
+  private static final String FOLLOWER_INDEX = "follows_by_followee";
+
+  private static final String CREATE_FOLLOWER_INDEX =
+      "CREATE RANGE INDEX " + FOLLOWER_INDEX + " IF NOT EXISTS " +
+      "FOR ()-[r:FOLLOWS]-() ON (r.followee, r.follower)";
+
+  private static final String AWAIT_FOLLOWER_INDEX =
+      "CALL db.awaitIndex('" + FOLLOWER_INDEX + "', 300)";
+
+  // One pass committed in batches; needs an auto-commit transaction, hence the bare driver session.
+  private static final String BACKFILL_FOLLOWER_KEYS =
+      "MATCH (f:UserNode)-[r:FOLLOWS]->(u:UserNode) " +
+      "WHERE r.follower IS NULL " +
+      "CALL { WITH f, r, u SET r.followee = id(u), r.follower = id(f) } IN TRANSACTIONS OF 10000 ROWS";
+
+  private static final String FOLLOWERS_AFTER =
+      "MATCH (u:UserNode {username: $username}) " +
+      "MATCH (f:UserNode)-[r:FOLLOWS]->() " +
+      "USING INDEX r:FOLLOWS(followee, follower) " +
+      "WHERE r.followee = id(u) AND r.follower > $after " +
+      "RETURN r.follower AS id, f.username AS username " +
+      "ORDER BY id ASC LIMIT $limit";
+
+  private static final String COUNT_FOLLOWERS =
+      "MATCH (u:UserNode {username: $username}) " +
+      "RETURN COUNT { (u)<-[:FOLLOWS]-(:UserNode) } AS total";
+
+  // Every $every-th follower id in cursor order, except the last one when no follower follows it.
+  private static final String CHUNK_BOUNDARIES =
+      "MATCH (u:UserNode {username: $username}) " +
+      "MATCH ()-[r:FOLLOWS]->() " +
+      "USING INDEX r:FOLLOWS(followee, follower) " +
+      "WHERE r.followee = id(u) AND r.follower > -1 " +
+      "WITH r.follower AS id ORDER BY id ASC " +
+      "WITH collect(id) AS ids " +
+      "UNWIND range($every - 1, size(ids) - 2, $every) AS i " +
+      "RETURN ids[i] AS id";
+
+  private final Neo4jClient neo4jClient;
+  private final Driver driver;
+  private volatile boolean indexReady;
+
+  public FollowerPageRepository(Neo4jClient neo4jClient, Driver driver) {
+    this.neo4jClient = neo4jClient;
+    this.driver = driver;
+  }
+
+  public List<FollowerRef> findFollowersAfter(String username, long after, int limit) {
+    ensureIndex();
+    return List.copyOf(neo4jClient.query(FOLLOWERS_AFTER)
+        .bindAll(Map.of("username", username, "after", after, "limit", limit))
+        .fetchAs(FollowerRef.class)
+        .mappedBy((typeSystem, record) -> new FollowerRef(record.get("id").asLong(), record.get("username").asString()))
+        .all());
+  }
+
+  public long countFollowers(String username) {
+    return neo4jClient.query(COUNT_FOLLOWERS)
+        .bind(username).to("username")
+        .fetchAs(Long.class)
+        .mappedBy((typeSystem, record) -> record.get("total").asLong())
+        .one()
+        .orElse(0L);
+  }
+
+  /**
+   * Last node id of every full chunk of {@code every} followers that has a successor; chunk i
+   * starts after boundary i - 1. One ordered pass over the follower index; only the boundaries
+   * leave the database.
+   */
+  public List<Long> chunkBoundaries(String username, int every) {
+    ensureIndex();
+    return List.copyOf(neo4jClient.query(CHUNK_BOUNDARIES)
+        .bindAll(Map.of("username", username, "every", every))
+        .fetchAs(Long.class)
+        .mappedBy((typeSystem, record) -> record.get("id").asLong())
+        .all());
+  }
+
+  private void ensureIndex() {
+    if (indexReady) {
+      return;
+    }
+    synchronized (this) {
+      if (indexReady) {
+        return;
+      }
+      try (Session session = driver.session()) {
+        session.run(CREATE_FOLLOWER_INDEX).consume();
+        session.run(AWAIT_FOLLOWER_INDEX).consume();
+        int backfilled = session.run(BACKFILL_FOLLOWER_KEYS).consume().counters().propertiesSet() / 2;
+        if (backfilled > 0) {
+          logger.info("Backfilled follower keys on {} FOLLOWS edges", backfilled);
+        }
+      }
+      indexReady = true;
+    }
+  }
+
+  public record FollowerRef(long id, String username) { }
+}
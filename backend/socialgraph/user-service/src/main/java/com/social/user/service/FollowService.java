@@ -1,18 +1,38 @@
 package com.social.user.service;
 
+import com.social.user.dto.FollowerPage;
 import com.social.user.graph.FollowNode;
+import com.social.user.kafka.FollowEvent;
 import com.social.user.repository.FollowRepository;
+import com.social.user.repository.FollowerPageRepository;
+import com.social.user.repository.FollowerPageRepository.FollowerRef;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 public class FollowService {
+  private static final Logger logger = LoggerFactory.getLogger(FollowService.class);
+  static final String FOLLOW_EVENTS_TOPIC = "follow-events";
+  public static final int MAX_PAGE_SIZE = 5000;
+
   private final FollowRepository followRepository;
+  private final FollowerPageRepository followerPageRepository;
+  private final KafkaTemplate<String, FollowEvent> followEvents;
 
-  public FollowService(FollowRepository followRepository) {
+  public FollowService(FollowRepository followRepository, FollowerPageRepository followerPageRepository,
+                       KafkaTemplate<String, FollowEvent> followEvents) {
     this.followRepository = followRepository;
+    this.followerPageRepository = followerPageRepository;
+    this.followEvents = followEvents;
   }
 
   @Transactional
@@ -23,11 +43,14 @@ public class FollowService {
     if (from.equals(to)) {
       throw new IllegalArgumentException("Cannot follow yourself");
     }
+    FollowNode node;
     try {
-      return followRepository.createFollow(from, to);
+      node = followRepository.createFollow(from, to);
     } catch (Exception e) {
       throw new RuntimeException("Failed to create follow relationship: " + e.getMessage(), e);
     }
+    publishAfterCommit(new FollowEvent(from, to, FollowEvent.FOLLOW, System.currentTimeMillis()));
+    return node;
   }
 
   public List<String> followersOf(String username) {
@@ -37,10 +60,92 @@ public class FollowService {
     return followRepository.findFollowers(username);
   }
 
+  public FollowerPage followersPage(String username, Long after, int limit) {
+    if (username == null || username.isBlank()) {
+      throw new IllegalArgumentException("Username cannot be null or empty");
+    }
+    int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    List<FollowerRef> refs = followerPageRepository.findFollowersAfter(username, after == null ? -1L : after, pageSize);
+    Long nextCursor = refs.size() == pageSize ? refs.get(refs.size() - 1).id() : null;
+    Long total = after == null ? followerPageRepository.countFollowers(username) : null;
+    return new FollowerPage(refs.stream().map(FollowerRef::username).toList(), nextCursor, total);
+  }
+
+  public void forEachFollowerPage(String username, int pageSize, Consumer<List<FollowerRef>> pageConsumer) {
+    if (username == null || username.isBlank()) {
+      throw new IllegalArgumentException("Username cannot be null or empty");
+    }
+    int size = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+    long after = -1L;
+    while (true) {
+      List<FollowerRef> refs = followerPageRepository.findFollowersAfter(username, after, size);
+      if (refs.isEmpty()) {
+        return;
+      }
+      pageConsumer.accept(refs);
+      if (refs.size() < size) {
+        return;
+      }
+      after = refs.get(refs.size() - 1).id();
+    }
+  }
+
+  public long followerCount(String username) {
+    if (username == null || username.isBlank()) {
+      throw new IllegalArgumentException("Username cannot be null or empty");
+    }
+    return followerPageRepository.countFollowers(username);
+  }
+
+  /**
+   * Cursors that split an author's followers into chunks of {@code every}; chunk i is the page
+   * {@code after = starts[i], limit = every}. Used by feed-ranker to spread one fan-out. The
+   * caller walks chunks with its own {@code every}, so it is rejected rather than clamped.
+   */
+  public List<Long> followerChunkStarts(String username, int every) {
+    if (username == null || username.isBlank()) {
+      throw new IllegalArgumentException("Username cannot be null or empty");
+    }
+    if (every < 1 || every > MAX_PAGE_SIZE) {
+      throw new IllegalArgumentException("Chunk size must be between 1 and " + MAX_PAGE_SIZE);
+    }
+    List<Long> starts = new ArrayList<>();
+    starts.add(-1L);
+    starts.addAll(followerPageRepository.chunkBoundaries(username, every));
+    return starts;
+  }
+
   public List<String> followingOf(String username) {
     if (username == null || username.isBlank()) {
       throw new IllegalArgumentException("Username cannot be null or empty");
     }
     return followRepository.findFollowing(username);
   }
+
+  // Sent only once the edge is committed, so a consumer refetching the followers sees it.
+  private void publishAfterCommit(FollowEvent evt) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      publish(evt);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        publish(evt);
+      }
+    });
+  }
+
+  // Keyed by followee so every change to one follower list lands on the same partition.
+  private void publish(FollowEvent evt) {
+    try {
+      followEvents.send(FOLLOW_EVENTS_TOPIC, evt.getFollowee(), evt).whenComplete((result, e) -> {
+        if (e != null) {
+          logger.warn("Failed to publish {} event {} -> {}", evt.getType(), evt.getFollower(), evt.getFollowee(), e);
+        }
+      });
+    } catch (Exception e) {
+      logger.warn("Failed to publish {} event {} -> {}", evt.getType(), evt.getFollower(), evt.getFollowee(), e);
+    }
+  }
 }
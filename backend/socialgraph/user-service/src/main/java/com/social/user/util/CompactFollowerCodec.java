@@ -0,0 +1,67 @@
+package com.social.user.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Binary encoding of one follower page for the internal user-service to feed-ranker call.
+ * <pre>
+ * byte    magic 'F'
+ * byte    flags, bit 0 = body is gzip-compressed
+ * body:
+ *   varint  count
+ *   varint  nextCursor + 1 (0 = last page)
+ *   varint  total + 1 (0 = not sent)
+ *   count x (varint sharedPrefixLength, varint suffixLength, suffix bytes)
+ * </pre>
+ * Usernames are sorted and front-coded against the previous name's UTF-8 bytes, which is
+ * the string equivalent of delta-encoding sorted numeric ids.
+ */
+public final class CompactFollowerCodec {
+
+  public static final byte MAGIC = 'F';
+  public static final int FLAG_GZIP = 1;
+
+  private CompactFollowerCodec() { }
+
+  public static byte[] encode(List<String> followers, Long nextCursor, Long total, boolean gzip) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + followers.size() * 8);
+    bytes.write(MAGIC);
+    bytes.write(gzip ? FLAG_GZIP : 0);
+    try (OutputStream body = gzip ? new GZIPOutputStream(bytes) : bytes) {
+      writeVarint(body, followers.size());
+      writeVarint(body, nextCursor == null ? 0 : nextCursor + 1);
+      writeVarint(body, total == null ? 0 : total + 1);
+
+      byte[] previous = new byte[0];
+      for (String follower : followers.stream().sorted().toList()) {
+        byte[] current = follower.getBytes(StandardCharsets.UTF_8);
+        int shared = 0;
+        int max = Math.min(previous.length, current.length);
+        while (shared < max && previous[shared] == current[shared]) {
+          shared++;
+        }
+        writeVarint(body, shared);
+        writeVarint(body, current.length - shared);
+        body.write(current, shared, current.length - shared);
+        previous = current;
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  static void writeVarint(OutputStream out, long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      out.write((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    out.write((int) value);
+  }
+}
@@ -0,0 +1,178 @@
+package com.social.user.controller;
+
+import com.social.user.kafka.FollowEvent;
+import com.social.user.repository.FollowRepository;
+import com.social.user.repository.FollowerPageRepository;
+import com.social.user.repository.FollowerPageRepository.FollowerRef;
+import com.social.user.repository.UserRepository;
+import com.social.user.security.JwtTokenProvider;
+import com.social.user.service.FollowService;
+import com.social.user.util.CompactFollowerCodec;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(UserController.class)
+@AutoConfigureMockMvc(addFilters = false)
+@Import(FollowService.class)
+@TestPropertySource(properties = {
+        "jwt.secret=this-is-a-very-long-secret-key-for-testing-purposes-that-meets-hs512-requirements-of-64-bytes-at-least",
+        "jwt.expiration=3600000",
+        "jwt.refresh-expiration=7200000"
+})
+public class UserControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @MockBean
+    private FollowRepository followRepository;
+
+    @MockBean
+    private FollowerPageRepository followerPageRepository;
+
+    @MockBean
+    private KafkaTemplate<String, FollowEvent> followEvents;
+
+    @MockBean
+    private JwtTokenProvider jwtTokenProvider;
+
+    private static final List<FollowerRef> FIRST_PAGE = List.of(new FollowerRef(3, "bob"), new FollowerRef(7, "carol"));
+
+    @Test
+    public void testFirstPageCarriesCursorAndTotal() throws Exception {
+        when(followerPageRepository.findFollowersAfter("alice", -1L, 2)).thenReturn(FIRST_PAGE);
+        when(followerPageRepository.countFollowers("alice")).thenReturn(3L);
+
+        mockMvc.perform(get("/users/alice/followers/page").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.followers[0]").value("bob"))
+                .andExpect(jsonPath("$.followers[1]").value("carol"))
+                .andExpect(jsonPath("$.nextCursor").value(7))
+                .andExpect(jsonPath("$.total").value(3));
+    }
+
+    @Test
+    public void testLastPageHasNoCursorAndLaterPagesNoTotal() throws Exception {
+        when(followerPageRepository.findFollowersAfter("alice", 7L, 2)).thenReturn(List.of(new FollowerRef(9, "dave")));
+
+        mockMvc.perform(get("/users/alice/followers/page").param("after", "7").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.followers[0]").value("dave"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist())
+                .andExpect(jsonPath("$.total").doesNotExist());
+        verify(followerPageRepository, never()).countFollowers(anyString());
+    }
+
+    @Test
+    public void testPageSizeIsCapped() throws Exception {
+        when(followerPageRepository.findFollowersAfter("alice", -1L, FollowService.MAX_PAGE_SIZE)).thenReturn(List.of());
+
+        mockMvc.perform(get("/users/alice/followers/page").param("limit", "100000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.followers").isEmpty());
+    }
+
+    @Test
+    public void testCount() throws Exception {
+        when(followerPageRepository.countFollowers("alice")).thenReturn(12345L);
+
+        mockMvc.perform(get("/users/alice/followers/count"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("12345"));
+    }
+
+    @Test
+    public void testChunksStartWithTheFirstFollower() throws Exception {
+        when(followerPageRepository.chunkBoundaries("alice", 2)).thenReturn(List.of(7L, 12L));
+
+        mockMvc.perform(get("/users/alice/followers/chunks").param("every", "2"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[-1, 7, 12]"));
+    }
+
+    @Test
+    public void testChunksLargerThanAPageAreRejected() throws Exception {
+        mockMvc.perform(get("/users/alice/followers/chunks").param("every", String.valueOf(FollowService.MAX_PAGE_SIZE + 1)))
+                .andExpect(status().isBadRequest());
+        verify(followerPageRepository, never()).chunkBoundaries(anyString(), anyInt());
+    }
+
+    @Test
+    public void testCompactPageIsTheEncodedJsonPage() throws Exception {
+        when(followerPageRepository.findFollowersAfter("alice", -1L, 2)).thenReturn(FIRST_PAGE);
+        when(followerPageRepository.countFollowers("alice")).thenReturn(3L);
+
+        mockMvc.perform(get("/users/alice/followers/compact").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_OCTET_STREAM))
+                .andExpect(content().bytes(CompactFollowerCodec.encode(List.of("bob", "carol"), 7L, 3L, false)));
+    }
+
+    @Test
+    public void testCompactPageCanBeGzipped() throws Exception {
+        when(followerPageRepository.findFollowersAfter("alice", 7L, 2)).thenReturn(List.of(new FollowerRef(9, "dave")));
+
+        mockMvc.perform(get("/users/alice/followers/compact").param("after", "7").param("limit", "2").param("gzip", "true"))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(CompactFollowerCodec.encode(List.of("dave"), null, null, true)));
+    }
+
+    @Test
+    public void testStreamWritesOneFollowerPerLineAcrossPages() throws Exception {
+        when(followerPageRepository.findFollowersAfter("alice", -1L, 2)).thenReturn(FIRST_PAGE);
+        when(followerPageRepository.findFollowersAfter("alice", 7L, 2)).thenReturn(List.of(new FollowerRef(9, "dave")));
+
+        MvcResult started = mockMvc.perform(get("/users/alice/followers/stream").param("pageSize", "2"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().string("{\"id\":3,\"username\":\"bob\"}\n"
+                        + "{\"id\":7,\"username\":\"carol\"}\n"
+                        + "{\"id\":9,\"username\":\"dave\"}\n"));
+        verify(followerPageRepository, never()).findFollowersAfter("alice", 9L, 2);
+    }
+
+    @Test
+    public void testStreamStopsAtAnEmptyPage() throws Exception {
+        when(followerPageRepository.findFollowersAfter("alice", -1L, 2)).thenReturn(FIRST_PAGE);
+        when(followerPageRepository.findFollowersAfter("alice", 7L, 2)).thenReturn(List.of());
+
+        MvcResult started = mockMvc.perform(get("/users/alice/followers/stream").param("pageSize", "2"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(content().string("{\"id\":3,\"username\":\"bob\"}\n{\"id\":7,\"username\":\"carol\"}\n"));
+        verify(followerPageRepository, times(2)).findFollowersAfter(anyString(), anyLong(), anyInt());
+    }
+}
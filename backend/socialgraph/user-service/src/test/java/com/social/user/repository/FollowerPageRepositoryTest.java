@@ -0,0 +1,104 @@
+package com.social.user.repository;
+
+import com.social.user.repository.FollowerPageRepository.FollowerRef;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.neo4j.DataNeo4jTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.Neo4jContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Needs Docker; skipped where there is none.
+@DataNeo4jTest
+@Import(FollowerPageRepository.class)
+@Testcontainers(disabledWithoutDocker = true)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class FollowerPageRepositoryTest {
+
+    @Container
+    private static final Neo4jContainer<?> neo4j = new Neo4jContainer<>("neo4j:5").withAdminPassword("neo4jpass");
+
+    @DynamicPropertySource
+    static void neo4jProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.neo4j.uri", neo4j::getBoltUrl);
+        registry.add("spring.neo4j.authentication.username", () -> "neo4j");
+        registry.add("spring.neo4j.authentication.password", neo4j::getAdminPassword);
+    }
+
+    @Autowired
+    private FollowRepository followRepository;
+
+    @Autowired
+    private FollowerPageRepository followerPageRepository;
+
+    @Autowired
+    private Neo4jClient neo4jClient;
+
+    @BeforeEach
+    public void setUp() {
+        neo4jClient.query("MATCH (n) DETACH DELETE n").run();
+        ReflectionTestUtils.setField(followerPageRepository, "indexReady", false);
+    }
+
+    @Test
+    public void testPagesWalkEveryFollowerOnceInCursorOrder() {
+        for (int i = 0; i < 25; i++) {
+            followRepository.createFollow("fan" + i, "star");
+        }
+        // An edge written before follower keys existed; the first read backfills it.
+        neo4jClient.query("MERGE (f:UserNode {username: 'legacy'}) " +
+                "MERGE (s:UserNode {username: 'star'}) MERGE (f)-[:FOLLOWS]->(s)").run();
+        followRepository.createFollow("star", "fan0");
+
+        List<FollowerRef> walked = new ArrayList<>();
+        long after = -1L;
+        while (true) {
+            List<FollowerRef> page = followerPageRepository.findFollowersAfter("star", after, 10);
+            walked.addAll(page);
+            if (page.size() < 10) {
+                break;
+            }
+            after = page.get(page.size() - 1).id();
+        }
+
+        Set<String> usernames = new HashSet<>();
+        for (int i = 0; i < walked.size(); i++) {
+            usernames.add(walked.get(i).username());
+            if (i > 0) {
+                assertTrue(walked.get(i - 1).id() < walked.get(i).id());
+            }
+        }
+        assertEquals(26, walked.size());
+        assertEquals(26, usernames.size());
+        assertTrue(usernames.contains("legacy"));
+        assertEquals(1, followerPageRepository.findFollowersAfter("fan0", -1L, 10).size());
+    }
+
+    @Test
+    public void testChunkBoundariesCutFullChunksWithASuccessor() {
+        for (int i = 0; i < 7; i++) {
+            followRepository.createFollow("fan" + i, "star");
+        }
+        List<FollowerRef> all = followerPageRepository.findFollowersAfter("star", -1L, 10);
+
+        assertEquals(List.of(all.get(2).id(), all.get(5).id()), followerPageRepository.chunkBoundaries("star", 3));
+        assertEquals(List.of(), followerPageRepository.chunkBoundaries("star", 7));
+        assertEquals(List.of(), followerPageRepository.chunkBoundaries("nobody", 3));
+    }
+}
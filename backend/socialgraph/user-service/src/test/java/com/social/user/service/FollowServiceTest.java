@@ -0,0 +1,78 @@
+package com.social.user.service;
+
+import com.social.user.kafka.FollowEvent;
+import com.social.user.repository.FollowRepository;
+import com.social.user.repository.FollowerPageRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class FollowServiceTest {
+
+    @Mock
+    private FollowRepository followRepository;
+
+    @Mock
+    private FollowerPageRepository followerPageRepository;
+
+    @Mock
+    private KafkaTemplate<String, FollowEvent> followEvents;
+
+    @InjectMocks
+    private FollowService followService;
+
+    @AfterEach
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void testFollowEventIsSentOnlyAfterCommit() {
+        when(followEvents.send(anyString(), anyString(), any())).thenReturn(CompletableFuture.completedFuture(null));
+        TransactionSynchronizationManager.initSynchronization();
+
+        followService.follow("alice", "bob");
+        verify(followEvents, never()).send(anyString(), anyString(), any());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(followEvents).send(eq(FollowService.FOLLOW_EVENTS_TOPIC), eq("bob"), any(FollowEvent.class));
+    }
+
+    @Test
+    public void testRolledBackFollowSendsNothing() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        followService.follow("alice", "bob");
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verify(followEvents, never()).send(anyString(), anyString(), any());
+    }
+
+    @Test
+    public void testFailedSendDoesNotFailTheFollow() {
+        when(followEvents.send(anyString(), anyString(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        assertDoesNotThrow(() -> followService.follow("alice", "bob"));
+    }
+}
@@ -0,0 +1,50 @@
+package com.social.user.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CompactFollowerCodecTest {
+
+    // feed-ranker's CompactFollowerReaderTest decodes these same bytes.
+    private static final byte[] GOLDEN = {
+            'F', 0, 3, 42, 4,
+            0, 3, 'b', 'o', 'b',
+            3, 2, 'b', 'y',
+            0, 5, 'c', 'a', 'r', 'o', 'l'};
+
+    @Test
+    public void testEncodesSortedFrontCodedPage() {
+        assertArrayEquals(GOLDEN, CompactFollowerCodec.encode(List.of("carol", "bobby", "bob"), 41L, 3L, false));
+    }
+
+    @Test
+    public void testGzipCompressesTheBodyOnly() throws IOException {
+        byte[] encoded = CompactFollowerCodec.encode(List.of("bob", "bobby", "carol"), 41L, 3L, true);
+
+        assertEquals('F', encoded[0]);
+        assertEquals(CompactFollowerCodec.FLAG_GZIP, encoded[1]);
+        byte[] body = new GZIPInputStream(new ByteArrayInputStream(encoded, 2, encoded.length - 2)).readAllBytes();
+        assertArrayEquals(Arrays.copyOfRange(GOLDEN, 2, GOLDEN.length), body);
+    }
+
+    @Test
+    public void testEmptyLastPageWithoutTotal() {
+        assertArrayEquals(new byte[] {'F', 0, 0, 0, 0}, CompactFollowerCodec.encode(List.of(), null, null, false));
+    }
+
+    @Test
+    public void testLargeCursorUsesSeveralVarintBytes() {
+        byte[] encoded = CompactFollowerCodec.encode(List.of(), 300L, null, false);
+
+        // 301 = 0b10_0101101
+        assertArrayEquals(new byte[] {'F', 0, 0, (byte) 0xAD, 0x02, 0}, encoded);
+    }
+}